@@ -0,0 +1,41 @@
+/**
+ * A single benchmarked operation with one integer parameter, such as a note or enemy count
+ */
+public interface Benchmark {
+    /**
+     * Get the name the benchmark is reported and filtered by
+     *
+     * @return The benchmark name
+     */
+    String getName();
+
+    /**
+     * Get the name of the benchmark's parameter
+     *
+     * @return The parameter name
+     */
+    String getParamName();
+
+    /**
+     * Get the parameter values to run the benchmark with
+     *
+     * @return The parameter values
+     */
+    int[] getParams();
+
+    /**
+     * Prepare the state for a parameter value, outside the measured time
+     *
+     * @param param The parameter value
+     * @throws Exception If the state cannot be prepared
+     */
+    void setup(int param) throws Exception;
+
+    /**
+     * Perform one measured operation
+     *
+     * @return A value derived from the operation, consumed so the work cannot be eliminated
+     * @throws Exception If the operation fails
+     */
+    long op() throws Exception;
+}
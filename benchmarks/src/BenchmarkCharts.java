@@ -0,0 +1,87 @@
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+
+/**
+ * Builds synthetic lanes and chart files for the benchmarks
+ */
+public class BenchmarkCharts {
+    private static final LaneDirection[] DIRECTIONS = {
+            LaneDirection.LEFT, LaneDirection.UP, LaneDirection.DOWN, LaneDirection.RIGHT};
+    private static final int[] LOCATIONS = {282, 432, 592, 742};
+    private static final int FIRST_FRAME = 100;
+
+    private BenchmarkCharts() {
+    }
+
+    /**
+     * Create a level with no chart file, clocked by the given counter
+     *
+     * @param clock The clock driving the level
+     * @return The empty level
+     */
+    public static Levels emptyLevel(FrameClock clock) {
+        Levels level = new Levels(0, null) {
+        };
+        level.setClock(clock);
+        return level;
+    }
+
+    /**
+     * Create a lane filled with evenly spaced normal notes
+     *
+     * @param noteCount The number of notes
+     * @param spacing   The number of frames between notes
+     * @return The filled lane
+     */
+    public static NoteLane normalLane(int noteCount, int spacing) {
+        NoteLane lane = new NoteLane(DIRECTIONS[0], LOCATIONS[0]);
+        for (int i = 0; i < noteCount; i++) {
+            lane.addNote(new NormalNote(DIRECTIONS[0], FIRST_FRAME + i * spacing));
+        }
+        return lane;
+    }
+
+    /**
+     * Create a packed lane filled with evenly spaced normal notes
+     *
+     * @param noteCount The number of notes
+     * @param spacing   The number of frames between notes
+     * @return The filled lane
+     */
+    public static PackedLane packedLane(int noteCount, int spacing) {
+        PackedLane lane = new PackedLane(DIRECTIONS[0], LOCATIONS[0], noteCount);
+        for (int i = 0; i < noteCount; i++) {
+            lane.addNote(NoteKind.NORMAL, FIRST_FRAME + i * spacing);
+        }
+        return lane;
+    }
+
+    /**
+     * Write a four lane chart of normal and hold notes to a temporary file
+     *
+     * @param noteCount The total number of notes
+     * @param spacing   The number of frames between notes in the same lane
+     * @return The path to the chart file
+     * @throws IOException If the file cannot be written
+     */
+    public static String writeChart(int noteCount, int spacing) throws IOException {
+        File file = File.createTempFile("bench-chart-" + noteCount + "-", ".csv");
+        file.deleteOnExit();
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
+            for (int i = 0; i < DIRECTIONS.length; i++) {
+                writer.write("Lane," + DIRECTIONS[i].getTypeName() + "," + LOCATIONS[i]);
+                writer.newLine();
+            }
+            for (int i = 0; i < noteCount; i++) {
+                String dir = DIRECTIONS[i % DIRECTIONS.length].getTypeName();
+                String type = (i % 10 == 0) ? "Hold" : "Normal";
+                int frame = FIRST_FRAME + (i / DIRECTIONS.length) * spacing;
+                writer.write(dir + "," + type + "," + frame);
+                writer.newLine();
+            }
+        }
+        return file.getPath();
+    }
+}
@@ -0,0 +1,98 @@
+import java.util.Locale;
+
+/**
+ * Measured results of one benchmark at one parameter value
+ */
+public class BenchmarkResult {
+    private static final double BYTES_PER_MB = 1024.0 * 1024.0;
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private final String name;
+    private final String paramName;
+    private final int param;
+    private final double score;
+    private final double scoreError;
+    private final double allocatedPerOp;
+    private final double allocationRate;
+    private final long gcCount;
+    private final boolean profiled;
+
+    /**
+     * Constructor for a benchmark result
+     *
+     * @param benchmark      The benchmark that was measured
+     * @param param          The parameter value it was measured at
+     * @param score          The mean time per operation in nanoseconds
+     * @param scoreError     The 99.9% confidence half-width of the score
+     * @param allocatedBytes The bytes allocated by the measuring thread
+     * @param ops            The number of operations measured
+     * @param nanos          The total measured time in nanoseconds
+     * @param gcCount        The number of collections during measurement
+     * @param profiled       Whether allocation profiling was requested
+     */
+    public BenchmarkResult(Benchmark benchmark, int param, double score, double scoreError,
+                           long allocatedBytes, long ops, long nanos, long gcCount, boolean profiled) {
+        this.name = benchmark.getName();
+        this.paramName = benchmark.getParamName();
+        this.param = param;
+        this.score = score;
+        this.scoreError = scoreError;
+        this.allocatedPerOp = (double) allocatedBytes / ops;
+        this.allocationRate = allocatedBytes / BYTES_PER_MB / (nanos / NANOS_PER_SECOND);
+        this.gcCount = gcCount;
+        this.profiled = profiled;
+    }
+
+    /**
+     * Get the key identifying the benchmark and parameter, used to match baselines
+     *
+     * @return The result key
+     */
+    public String getKey() {
+        return name + ":" + param;
+    }
+
+    /**
+     * Get the mean time per operation
+     *
+     * @return The score in nanoseconds per operation
+     */
+    public double getScore() {
+        return score;
+    }
+
+    /**
+     * Format the result as a row of the console report
+     *
+     * @return The formatted row
+     */
+    public String toRow() {
+        String row = String.format(Locale.ROOT, "%-26s %8s=%-7d %14.1f +- %-10.1f ns/op",
+                name, paramName, param, score, scoreError);
+        if (profiled) {
+            row += String.format(Locale.ROOT, "   %12.1f B/op %10.1f MB/sec %4d gc",
+                    allocatedPerOp, allocationRate, gcCount);
+        }
+        return row;
+    }
+
+    /**
+     * Format the result as a single line JSON object in the layout JMH uses for its results
+     *
+     * @return The JSON object
+     */
+    public String toJson() {
+        String json = String.format(Locale.ROOT,
+                "{\"benchmark\":\"%s\",\"mode\":\"avgt\",\"params\":{\"%s\":\"%d\"},"
+                        + "\"primaryMetric\":{\"score\":%.3f,\"scoreError\":%.3f,\"scoreUnit\":\"ns/op\"}",
+                name, paramName, param, score, scoreError);
+        if (profiled) {
+            json += String.format(Locale.ROOT, ",\"secondaryMetrics\":{"
+                            + "\"gc.alloc.rate.norm\":{\"score\":%.3f,\"scoreUnit\":\"B/op\"},"
+                            + "\"gc.alloc.rate\":{\"score\":%.3f,\"scoreUnit\":\"MB/sec\"},"
+                            + "\"gc.count\":{\"score\":%d,\"scoreUnit\":\"counts\"}}",
+                    allocatedPerOp, allocationRate, gcCount);
+        }
+        return json + "}";
+    }
+}
@@ -0,0 +1,243 @@
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs the frame loop benchmarks and reports time per operation, with optional allocation profiling.
+ * The options follow JMH: [regex] [-wi n] [-i n] [-r seconds] [-prof gc] [-rf json] [-rff file],
+ * plus [-baseline file] [-threshold percent] to fail when a result is slower than a previous run.
+ */
+public class BenchmarkRunner {
+    private static final Benchmark[] BENCHMARKS = {
+            new LaneUpdateBenchmark(),
+            new PackedLaneUpdateBenchmark(),
+            new EnemyCollisionBenchmark(),
+            new ClosestEnemyBenchmark(),
+            new EvaluateScoreBenchmark(),
+            new ReadCsvBenchmark(),
+            new ReadChartBenchmark()
+    };
+    private static final int DEFAULT_WARMUP_ITERATIONS = 3;
+    private static final int DEFAULT_ITERATIONS = 5;
+    private static final double DEFAULT_ITERATION_SECONDS = 1;
+    private static final double DEFAULT_THRESHOLD_PERCENT = 10;
+    private static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+    private static final long MIN_BATCH_NANOS = 10_000;
+    private static final int MAX_BATCH = 1 << 20;
+    private static final double CONFIDENCE_Z = 3.29;
+    private static final Pattern BASELINE_ENTRY = Pattern.compile(
+            "\"benchmark\":\"([^\"]+)\".*?\"params\":\\{\"[^\"]+\":\"(\\d+)\"}.*?\"primaryMetric\":\\{\"score\":([-0-9.eE+]+)");
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static volatile long sink;
+
+    private String filter = ".*";
+    private int warmupIterations = DEFAULT_WARMUP_ITERATIONS;
+    private int iterations = DEFAULT_ITERATIONS;
+    private double iterationSeconds = DEFAULT_ITERATION_SECONDS;
+    private boolean profileGc = false;
+    private String resultFile = null;
+    private String baselineFile = null;
+    private double thresholdPercent = DEFAULT_THRESHOLD_PERCENT;
+
+    /**
+     * The entry point for the benchmarks.
+     */
+    public static void main(String[] args) throws Exception {
+        BenchmarkRunner runner = new BenchmarkRunner();
+        runner.parseArgs(args);
+        List<BenchmarkResult> results = runner.runAll();
+        if (runner.resultFile != null) {
+            writeJson(results, runner.resultFile);
+        }
+        if (runner.baselineFile != null && !runner.compareWithBaseline(results)) {
+            System.exit(1);
+        }
+    }
+
+    private void parseArgs(String[] args) {
+        CommandLine line = new CommandLine(args,
+                new String[]{"-wi", "-i", "-r", "-prof", "-rf", "-rff", "-baseline", "-threshold"});
+        warmupIterations = line.getInt("-wi", warmupIterations);
+        iterations = line.getInt("-i", iterations);
+        iterationSeconds = line.getDouble("-r", iterationSeconds);
+        profileGc = "gc".equals(line.get("-prof", null));
+        resultFile = line.get("-rff", resultFile);
+        baselineFile = line.get("-baseline", baselineFile);
+        thresholdPercent = line.getDouble("-threshold", thresholdPercent);
+        List<String> filters = line.getArguments();
+        if (!filters.isEmpty()) {
+            filter = filters.get(filters.size() - 1);
+        }
+        if ("json".equalsIgnoreCase(line.get("-rf", "")) && resultFile == null) {
+            resultFile = DEFAULT_RESULT_FILE;
+        }
+    }
+
+    private List<BenchmarkResult> runAll() throws Exception {
+        Pattern pattern = Pattern.compile(filter);
+        List<BenchmarkResult> results = new ArrayList<>();
+        for (Benchmark benchmark : BENCHMARKS) {
+            if (!pattern.matcher(benchmark.getName()).find()) {
+                continue;
+            }
+            for (int param : benchmark.getParams()) {
+                BenchmarkResult result = run(benchmark, param);
+                System.out.println(result.toRow());
+                results.add(result);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Warm up and measure one benchmark at one parameter value
+     */
+    private BenchmarkResult run(Benchmark benchmark, int param) throws Exception {
+        benchmark.setup(param);
+        long iterationNanos = (long) (iterationSeconds * 1e9);
+        int batch = calibrateBatch(benchmark);
+
+        for (int i = 0; i < warmupIterations; i++) {
+            measure(benchmark, batch, iterationNanos, null);
+        }
+
+        double[] scores = new double[iterations];
+        long[] totals = new long[4];
+        for (int i = 0; i < iterations; i++) {
+            scores[i] = measure(benchmark, batch, iterationNanos, totals);
+        }
+
+        double mean = 0;
+        for (double score : scores) {
+            mean += score;
+        }
+        mean /= iterations;
+        double variance = 0;
+        for (double score : scores) {
+            variance += (score - mean) * (score - mean);
+        }
+        double error = (iterations > 1)
+                ? CONFIDENCE_Z * Math.sqrt(variance / (iterations - 1)) / Math.sqrt(iterations)
+                : Double.NaN;
+
+        return new BenchmarkResult(benchmark, param, mean, error,
+                totals[2], totals[0], totals[1], totals[3], profileGc);
+    }
+
+    /**
+     * Find a batch size large enough that timer calls do not dominate a batch
+     */
+    private static int calibrateBatch(Benchmark benchmark) throws Exception {
+        int batch = 1;
+        while (batch < MAX_BATCH) {
+            long start = System.nanoTime();
+            long acc = 0;
+            for (int i = 0; i < batch; i++) {
+                acc += benchmark.op();
+            }
+            sink = acc;
+            if (System.nanoTime() - start >= MIN_BATCH_NANOS) {
+                break;
+            }
+            batch *= 2;
+        }
+        return batch;
+    }
+
+    /**
+     * Run batches for one iteration and return the time per operation.
+     * Totals accumulate ops, nanoseconds, allocated bytes and collections.
+     */
+    private static double measure(Benchmark benchmark, int batch, long iterationNanos, long[] totals)
+            throws Exception {
+        long threadId = Thread.currentThread().getId();
+        long gcStart = gcCount();
+        long allocStart = THREADS.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        long ops = 0;
+        long elapsed;
+        long acc = 0;
+        do {
+            for (int i = 0; i < batch; i++) {
+                acc += benchmark.op();
+            }
+            ops += batch;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < iterationNanos);
+        long allocated = THREADS.getThreadAllocatedBytes(threadId) - allocStart;
+        long collections = gcCount() - gcStart;
+        sink = acc;
+
+        if (totals != null) {
+            totals[0] += ops;
+            totals[1] += elapsed;
+            totals[2] += allocated;
+            totals[3] += collections;
+        }
+        return (double) elapsed / ops;
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static void writeJson(List<BenchmarkResult> results, String path) throws IOException {
+        try (PrintWriter writer = new PrintWriter(path)) {
+            writer.println("[");
+            for (int i = 0; i < results.size(); i++) {
+                writer.println("    " + results.get(i).toJson() + ((i < results.size() - 1) ? "," : ""));
+            }
+            writer.println("]");
+        }
+        System.out.println("Results written to " + path);
+    }
+
+    /**
+     * Compare results with a previous JSON result file
+     *
+     * @return False if any benchmark is slower than the baseline by more than the threshold
+     */
+    private boolean compareWithBaseline(List<BenchmarkResult> results) throws IOException {
+        Map<String, Double> baseline = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(baselineFile))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Matcher matcher = BASELINE_ENTRY.matcher(line);
+                if (matcher.find()) {
+                    baseline.put(matcher.group(1) + ":" + matcher.group(2), Double.parseDouble(matcher.group(3)));
+                }
+            }
+        }
+
+        boolean passed = true;
+        for (BenchmarkResult result : results) {
+            Double previous = baseline.get(result.getKey());
+            if (previous == null) {
+                continue;
+            }
+            double change = (result.getScore() - previous) / previous * 100;
+            if (change > thresholdPercent) {
+                passed = false;
+                System.out.printf(Locale.ROOT, "REGRESSION %s: %.1f -> %.1f ns/op (+%.1f%%)%n",
+                        result.getKey(), previous, result.getScore(), change);
+            }
+        }
+        return passed;
+    }
+}
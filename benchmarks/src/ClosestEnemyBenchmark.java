@@ -0,0 +1,44 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Cost of a projectile searching for its closest active enemy
+ */
+public class ClosestEnemyBenchmark implements Benchmark {
+    private static final int SEED = 42;
+
+    private final List<Enemy> enemies = new ArrayList<>();
+    private Projectile projectile;
+
+    @Override
+    public String getName() {
+        return "Projectile.closestEnemy";
+    }
+
+    @Override
+    public String getParamName() {
+        return "enemies";
+    }
+
+    @Override
+    public int[] getParams() {
+        return new int[]{10, 100, 1000};
+    }
+
+    @Override
+    public void setup(int param) {
+        Random random = new Random(SEED);
+        enemies.clear();
+        for (int i = 0; i < param; i++) {
+            enemies.add(new Enemy(random));
+        }
+        projectile = new Projectile(new Guardian(), enemies);
+    }
+
+    @Override
+    public long op() {
+        Enemy closest = projectile.closestEnemy(enemies);
+        return (closest == null) ? 0 : (long) closest.getX();
+    }
+}
@@ -0,0 +1,58 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Cost of one frame of note-stealing checks: rebuilding the note index and querying it for every enemy,
+ * against a dense four lane chart
+ */
+public class EnemyCollisionBenchmark implements Benchmark {
+    private static final int NOTE_COUNT = 20000;
+    private static final int NOTE_SPACING = 8;
+    private static final int WARM_FRAMES = 2000;
+    private static final int SEED = 42;
+
+    private final List<Enemy> enemies = new ArrayList<>();
+    private final NoteCollisionIndex noteIndex = new NoteCollisionIndex();
+    private List<Lane> lanes;
+
+    @Override
+    public String getName() {
+        return "Enemy.checkCollision";
+    }
+
+    @Override
+    public String getParamName() {
+        return "enemies";
+    }
+
+    @Override
+    public int[] getParams() {
+        return new int[]{1, 10, 50};
+    }
+
+    @Override
+    public void setup(int param) throws Exception {
+        Simulation simulation = new Simulation(new ChartLevel(BenchmarkCharts.writeChart(NOTE_COUNT, NOTE_SPACING)));
+        KeyStateInput input = new KeyStateInput();
+        for (int i = 0; i < WARM_FRAMES; i++) {
+            simulation.step(input);
+        }
+        lanes = simulation.getLevel().getLanes();
+
+        Random random = new Random(SEED);
+        enemies.clear();
+        for (int i = 0; i < param; i++) {
+            enemies.add(new Enemy(random));
+        }
+    }
+
+    @Override
+    public long op() {
+        noteIndex.rebuild(lanes);
+        for (int i = 0; i < enemies.size(); i++) {
+            enemies.get(i).checkCollision(noteIndex);
+        }
+        return enemies.size();
+    }
+}
@@ -0,0 +1,45 @@
+import java.util.Random;
+
+/**
+ * Cost of judging a batch of note heights, a quarter of them with the key pressed
+ */
+public class EvaluateScoreBenchmark implements Benchmark {
+    private static final int TARGET_HEIGHT = 657;
+    private static final int SEED = 42;
+
+    private final Accuracy accuracy = new Accuracy();
+    private int[] heights;
+
+    @Override
+    public String getName() {
+        return "Accuracy.evaluateScore";
+    }
+
+    @Override
+    public String getParamName() {
+        return "heights";
+    }
+
+    @Override
+    public int[] getParams() {
+        return new int[]{1024};
+    }
+
+    @Override
+    public void setup(int param) {
+        Random random = new Random(SEED);
+        heights = new int[param];
+        for (int i = 0; i < param; i++) {
+            heights[i] = random.nextInt(Playfield.HEIGHT + 100);
+        }
+    }
+
+    @Override
+    public long op() {
+        long sum = 0;
+        for (int i = 0; i < heights.length; i++) {
+            sum += accuracy.evaluateScore(heights[i], TARGET_HEIGHT, (i & 3) == 0, false);
+        }
+        return sum;
+    }
+}
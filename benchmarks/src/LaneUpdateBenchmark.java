@@ -0,0 +1,45 @@
+/**
+ * Cost of one frame of Lane.update on a single lane at realistic and extreme note counts
+ */
+public class LaneUpdateBenchmark implements Benchmark {
+    private static final int NOTE_SPACING = 8;
+
+    private final KeyStateInput input = new KeyStateInput();
+    private final Accuracy accuracy = new Accuracy();
+    private FrameCounter clock;
+    private Levels level;
+    private Lane lane;
+    private int noteCount;
+
+    @Override
+    public String getName() {
+        return "Lane.update";
+    }
+
+    @Override
+    public String getParamName() {
+        return "notes";
+    }
+
+    @Override
+    public int[] getParams() {
+        return new int[]{50, 5000, 50000};
+    }
+
+    @Override
+    public void setup(int param) {
+        noteCount = param;
+        clock = new FrameCounter();
+        level = BenchmarkCharts.emptyLevel(clock);
+        lane = BenchmarkCharts.normalLane(noteCount, NOTE_SPACING);
+    }
+
+    @Override
+    public long op() {
+        if (lane.isFinished()) {
+            setup(noteCount);
+        }
+        clock.advance();
+        return lane.update(input, accuracy, level);
+    }
+}
@@ -0,0 +1,38 @@
+import java.io.File;
+
+/**
+ * Cost of loading the same chart as ReadCsvBenchmark from its compiled form through Levels.readChart
+ */
+public class ReadChartBenchmark implements Benchmark {
+    private static final int NOTE_SPACING = 8;
+
+    private String chartFile;
+
+    @Override
+    public String getName() {
+        return "Levels.readChart";
+    }
+
+    @Override
+    public String getParamName() {
+        return "notes";
+    }
+
+    @Override
+    public int[] getParams() {
+        return new int[]{1000, 100000};
+    }
+
+    @Override
+    public void setup(int param) throws Exception {
+        chartFile = BenchmarkCharts.writeChart(param, NOTE_SPACING);
+        String binaryFile = ChartFormat.binaryPath(chartFile);
+        BinaryChart.write(CsvChart.read(chartFile, true), binaryFile);
+        new File(binaryFile).deleteOnExit();
+    }
+
+    @Override
+    public long op() throws Exception {
+        return new ChartLevel(chartFile).getLanes().size();
+    }
+}
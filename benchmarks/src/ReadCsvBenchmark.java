@@ -0,0 +1,33 @@
+/**
+ * Cost of loading a four lane chart through Levels.readCSV
+ */
+public class ReadCsvBenchmark implements Benchmark {
+    private static final int NOTE_SPACING = 8;
+
+    private String chartFile;
+
+    @Override
+    public String getName() {
+        return "Levels.readCSV";
+    }
+
+    @Override
+    public String getParamName() {
+        return "notes";
+    }
+
+    @Override
+    public int[] getParams() {
+        return new int[]{1000, 100000};
+    }
+
+    @Override
+    public void setup(int param) throws Exception {
+        chartFile = BenchmarkCharts.writeChart(param, NOTE_SPACING);
+    }
+
+    @Override
+    public long op() throws Exception {
+        return new ChartLevel(chartFile).getLanes().size();
+    }
+}
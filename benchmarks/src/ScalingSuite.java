@@ -0,0 +1,220 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Measures how loading and playing a chart scale with its length. For each size, a chart is generated
+ * with {@link ChartGenerator} and loaded through Levels.readCSV as note objects and as packed lanes,
+ * recording the load time, the heap the level holds and the cost of a frame of Levels.update. The
+ * results are written as a CSV table and an SVG plot of each measure against the note count.
+ * Usage: ScalingSuite [note counts...] [-nps notes per second] [-frames n] [-o output prefix]
+ */
+public class ScalingSuite {
+    private static final int[] DEFAULT_SIZES = {1000, 10000, 100000, 1000000};
+    private static final String[] LAYOUTS = {"objects", "packed"};
+    private static final String[] COLOURS = {"#d62728", "#1f77b4"};
+    private static final String[] MEASURES = {"load ms", "heap MB", "frame us"};
+    private static final double DEFAULT_NOTES_PER_SECOND = 8;
+    private static final int DEFAULT_FRAMES = 3000;
+    private static final String DEFAULT_PREFIX = "scaling";
+    private static final int LOAD_RUNS = 3;
+    private static final int GC_RUNS = 4;
+    private static final int LANES = 4;
+    private static final double HOLD_RATIO = 0.1;
+    private static final double SPECIAL_RATIO = 0.01;
+    private static final double BOMB_RATIO = 0.01;
+    private static final long SEED = 1;
+    private static final double NANOS_PER_MILLI = 1e6;
+    private static final double NANOS_PER_MICRO = 1e3;
+    private static final double BYTES_PER_MB = 1 << 20;
+
+    private static final int PANEL_WIDTH = 360;
+    private static final int PANEL_HEIGHT = 260;
+    private static final int MARGIN = 50;
+
+    private final List<Integer> sizes = new ArrayList<>();
+    private double notesPerSecond = DEFAULT_NOTES_PER_SECOND;
+    private int frames = DEFAULT_FRAMES;
+    private String prefix = DEFAULT_PREFIX;
+
+    /**
+     * The entry point for the scaling suite.
+     */
+    public static void main(String[] args) throws IOException, ChartFormatException {
+        ScalingSuite suite = new ScalingSuite();
+        suite.parseArgs(args);
+
+        // warm up the loading and frame loop so the first size is not measured while it compiles
+        String warmup = suite.generate(suite.sizes.get(0));
+        for (int l = 0; l < LAYOUTS.length; l++) {
+            suite.measure(warmup, l == 1);
+        }
+        new File(warmup).delete();
+
+        // [size][layout][measure]
+        double[][][] results = new double[suite.sizes.size()][LAYOUTS.length][];
+        System.out.printf("%-10s %-8s %12s %12s %12s%n", "notes", "layout", MEASURES[0], MEASURES[1], MEASURES[2]);
+        for (int s = 0; s < suite.sizes.size(); s++) {
+            int size = suite.sizes.get(s);
+            String chart = suite.generate(size);
+            for (int l = 0; l < LAYOUTS.length; l++) {
+                results[s][l] = suite.measure(chart, l == 1);
+                System.out.printf(Locale.ROOT, "%-10d %-8s %12.2f %12.2f %12.3f%n",
+                        size, LAYOUTS[l], results[s][l][0], results[s][l][1], results[s][l][2]);
+            }
+            new File(chart).delete();
+        }
+
+        suite.writeCsv(results);
+        suite.writeSvg(results);
+        System.out.println("Results written to " + suite.prefix + ".csv and " + suite.prefix + ".svg");
+    }
+
+    private void parseArgs(String[] args) {
+        CommandLine line = new CommandLine(args, new String[]{"-nps", "-frames", "-o"});
+        notesPerSecond = line.getDouble("-nps", notesPerSecond);
+        frames = line.getInt("-frames", frames);
+        prefix = line.get("-o", prefix);
+        for (String size : line.getArguments()) {
+            sizes.add(Integer.parseInt(size));
+        }
+        if (sizes.isEmpty()) {
+            for (int size : DEFAULT_SIZES) {
+                sizes.add(size);
+            }
+        }
+    }
+
+    /**
+     * Generate a chart of a given number of notes to a temporary file
+     */
+    private String generate(int size) throws IOException {
+        File file = File.createTempFile("scaling-" + size + "-", ".csv");
+        file.deleteOnExit();
+        new ChartGenerator(LANES, notesPerSecond, HOLD_RATIO, SPECIAL_RATIO, BOMB_RATIO, SEED).write(file.getPath(), size);
+        return file.getPath();
+    }
+
+    /**
+     * Measure loading and playing a chart
+     *
+     * @return The load time in milliseconds, the heap held in megabytes and the frame cost in microseconds
+     */
+    private double[] measure(String chart, boolean packed) throws IOException, ChartFormatException {
+        double loadNanos = Double.MAX_VALUE;
+        for (int i = 0; i < LOAD_RUNS; i++) {
+            long start = System.nanoTime();
+            load(chart, packed);
+            loadNanos = Math.min(loadNanos, System.nanoTime() - start);
+        }
+
+        long before = usedHeap();
+        Levels level = load(chart, packed);
+        long heap = usedHeap() - before;
+
+        Simulation simulation = new Simulation(level);
+        KeyStateInput input = new KeyStateInput();
+        long start = System.nanoTime();
+        int played = 0;
+        while (played < frames && !simulation.step(input)) {
+            played++;
+        }
+        double frameNanos = (System.nanoTime() - start) / (double) Math.max(1, played);
+
+        return new double[]{loadNanos / NANOS_PER_MILLI, heap / BYTES_PER_MB, frameNanos / NANOS_PER_MICRO};
+    }
+
+    private static Levels load(String chart, boolean packed) throws IOException, ChartFormatException {
+        Levels level = BenchmarkCharts.emptyLevel(new FrameCounter());
+        if (packed) {
+            level.packChart(chart);
+        } else {
+            level.readCSV(chart);
+        }
+        return level;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < GC_RUNS; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private void writeCsv(double[][][] results) throws IOException {
+        try (PrintWriter writer = new PrintWriter(prefix + ".csv")) {
+            writer.println("notes,layout,load_ms,heap_mb,frame_us");
+            for (int s = 0; s < sizes.size(); s++) {
+                for (int l = 0; l < LAYOUTS.length; l++) {
+                    writer.printf(Locale.ROOT, "%d,%s,%.3f,%.3f,%.4f%n",
+                            sizes.get(s), LAYOUTS[l], results[s][l][0], results[s][l][1], results[s][l][2]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Plot each measure against the note count on a log scale, one panel per measure
+     */
+    private void writeSvg(double[][][] results) throws IOException {
+        double minLog = Math.log10(sizes.get(0));
+        double maxLog = minLog;
+        for (int size : sizes) {
+            minLog = Math.min(minLog, Math.log10(size));
+            maxLog = Math.max(maxLog, Math.log10(size));
+        }
+        double logRange = Math.max(maxLog - minLog, 1);
+
+        try (PrintWriter writer = new PrintWriter(prefix + ".svg")) {
+            writer.printf("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"%d\" height=\"%d\" "
+                            + "font-family=\"sans-serif\" font-size=\"11\">%n",
+                    MEASURES.length * (PANEL_WIDTH + MARGIN) + MARGIN, PANEL_HEIGHT + 2 * MARGIN);
+            for (int m = 0; m < MEASURES.length; m++) {
+                int left = MARGIN + m * (PANEL_WIDTH + MARGIN);
+                int bottom = MARGIN + PANEL_HEIGHT;
+                double max = 0;
+                for (double[][] sizeResults : results) {
+                    for (double[] layoutResults : sizeResults) {
+                        max = Math.max(max, layoutResults[m]);
+                    }
+                }
+                max = (max > 0) ? max : 1;
+
+                writer.printf("<text x=\"%d\" y=\"%d\" text-anchor=\"middle\" font-size=\"13\">%s</text>%n",
+                        left + PANEL_WIDTH / 2, MARGIN - 20, MEASURES[m]);
+                writer.printf("<rect x=\"%d\" y=\"%d\" width=\"%d\" height=\"%d\" fill=\"none\" stroke=\"#888\"/>%n",
+                        left, MARGIN, PANEL_WIDTH, PANEL_HEIGHT);
+                writer.printf(Locale.ROOT, "<text x=\"%d\" y=\"%d\" text-anchor=\"end\">%.3g</text>%n",
+                        left - 4, MARGIN + 4, max);
+                writer.printf("<text x=\"%d\" y=\"%d\" text-anchor=\"end\">0</text>%n", left - 4, bottom);
+                for (int size : sizes) {
+                    double x = left + (Math.log10(size) - minLog) / logRange * PANEL_WIDTH;
+                    writer.printf(Locale.ROOT, "<text x=\"%.1f\" y=\"%d\" text-anchor=\"middle\">%d</text>%n",
+                            x, bottom + 16, size);
+                }
+
+                for (int l = 0; l < LAYOUTS.length; l++) {
+                    StringBuilder points = new StringBuilder();
+                    for (int s = 0; s < sizes.size(); s++) {
+                        double x = left + (Math.log10(sizes.get(s)) - minLog) / logRange * PANEL_WIDTH;
+                        double y = bottom - results[s][l][m] / max * PANEL_HEIGHT;
+                        points.append(String.format(Locale.ROOT, "%.1f,%.1f ", x, y));
+                        writer.printf(Locale.ROOT, "<circle cx=\"%.1f\" cy=\"%.1f\" r=\"3\" fill=\"%s\"/>%n",
+                                x, y, COLOURS[l]);
+                    }
+                    writer.printf("<polyline points=\"%s\" fill=\"none\" stroke=\"%s\" stroke-width=\"2\"/>%n",
+                            points.toString().trim(), COLOURS[l]);
+                    writer.printf("<text x=\"%d\" y=\"%d\" fill=\"%s\">%s</text>%n",
+                            left + 8, MARGIN + 16 + l * 14, COLOURS[l], LAYOUTS[l]);
+                }
+            }
+            writer.printf("<text x=\"%d\" y=\"%d\" text-anchor=\"middle\">notes in chart (log scale)</text>%n",
+                    (MEASURES.length * (PANEL_WIDTH + MARGIN) + MARGIN) / 2, PANEL_HEIGHT + 2 * MARGIN - 8);
+            writer.println("</svg>");
+        }
+    }
+}
@@ -1,7 +1,3 @@
-import bagel.Font;
-import bagel.Window;
-import bagel.util.Vector2;
-
 import static java.lang.Math.abs;
 
 /**
@@ -14,76 +10,146 @@ public class Accuracy {
     public static final int BAD_SCORE = -1;
     public static final int MISS_SCORE = -5;
     public static final int NOT_SCORED = 0;
-    public static final String PERFECT = "PERFECT";
-    public static final String GOOD = "GOOD";
-    public static final String BAD = "BAD";
-    public static final String MISS = "MISS";
     private static final int PERFECT_RADIUS = 15;
-    private static final int GOOD_RADIUS = 50;
+    public static final int GOOD_RADIUS = 50;
     private static final int BAD_RADIUS = 100;
-    private static final int MISS_RADIUS = 200;
-    private static final Font ACCURACY_FONT = new Font(ShadowDance.FONT_FILE, 40);
+    public static final int MISS_RADIUS = 200;
     private static final int RENDER_FRAMES = 30;
-    private String currAccuracy = null;
+    private final int[] judgmentCounts = new int[Judgment.values().length];
+    private Judgment currAccuracy = null;
     private int frameCount = 0;
+    private long judgmentTrace = 0;
+    private GameEventStream events = null;
+    private LaneDirection lane = null;
 
     /**
-     * Calculate the distance between two Vector2 points
+     * Calculate the distance between two points given by their coordinates
      *
-     * @param point1 The first point
-     * @param point2 The second point
+     * @param x1 The horizontal position of the first point
+     * @param y1 The vertical position of the first point
+     * @param x2 The horizontal position of the second point
+     * @param y2 The vertical position of the second point
      * @return The distance between the two points
      */
-    public static double getDistance(Vector2 point1, Vector2 point2) {
-        return abs(point1.sub(point2).length());
+    public static double getDistance(double x1, double y1, double x2, double y2) {
+        double dx = x1 - x2;
+        double dy = y1 - y2;
+        return Math.sqrt(dx * dx + dy * dy);
     }
 
     /**
-     * Detect a collision between two Vector 2 points using a target radius
+     * Detect a collision between two points using a target radius
      *
-     * @param point1       The first point
-     * @param point2       The second point
+     * @param x1           The horizontal position of the first point
+     * @param y1           The vertical position of the first point
+     * @param x2           The horizontal position of the second point
+     * @param y2           The vertical position of the second point
      * @param targetRadius The radius within which a collision is detected
      * @return True if a collision is detected
      */
-    public static boolean detectCollision(Vector2 point1, Vector2 point2, double targetRadius) {
-        return getDistance(point1, point2) <= targetRadius;
+    public static boolean detectCollision(double x1, double y1, double x2, double y2, double targetRadius) {
+        return getDistance(x1, y1, x2, y2) <= targetRadius;
+    }
+
+    /**
+     * Set the stream that judgments and effects are published to
+     *
+     * @param events The event stream
+     */
+    public void setEvents(GameEventStream events) {
+        this.events = events;
+    }
+
+    /**
+     * Set the lane whose notes are being judged
+     *
+     * @param lane The lane being updated
+     */
+    public void setLane(LaneDirection lane) {
+        this.lane = lane;
+    }
+
+    /**
+     * Set the judgment of a note, displaying it and publishing it
+     *
+     * @param accuracy The judgment
+     */
+    public void setAccuracy(Judgment accuracy) {
+        show(accuracy);
+        if (events != null) {
+            events.noteJudged(lane, accuracy);
+        }
+    }
+
+    /**
+     * Announce a special note's effect, displaying its message and publishing it
+     *
+     * @param effect The effect that starts
+     */
+    public void showEffect(SpecialEffect effect) {
+        show(effect.getMessage());
+        if (events != null) {
+            events.effectApplied(lane, effect);
+        }
     }
 
     /**
      * Set the current accuracy level and reset the frame count
      *
-     * @param accuracy The accuracy level to set and display
+     * @param accuracy The accuracy level to display
      */
-    public void setAccuracy(String accuracy) {
+    private void show(Judgment accuracy) {
         currAccuracy = accuracy;
         frameCount = 0;
+        judgmentCounts[accuracy.ordinal()]++;
+        // hashed by text so replays recorded before judgments were enums still verify
+        judgmentTrace = judgmentTrace * 31 + accuracy.getText().hashCode();
+    }
+
+    /**
+     * Get a hash of every judgment so far in order, for checking that a replay plays out the same
+     *
+     * @return The judgment trace
+     */
+    public long getJudgmentTrace() {
+        return judgmentTrace;
+    }
+
+    /**
+     * Get the number of times a judgment has been given so far
+     *
+     * @param judgment The judgment to count
+     * @return The judgment count
+     */
+    public int getCount(Judgment judgment) {
+        return judgmentCounts[judgment.ordinal()];
     }
 
     /**
      * Evaluate the score based on the distance between the note height and target height
      *
-     * @param height       The height of the note
+     * @param height       The height of the note, which falls between pixels when the press was timed
+     *                     between frames
      * @param targetHeight The target height for the note
      * @param triggered    Whether the note has been triggered or not
      * @param isSpecial    Whether the note is special or not
      * @return The score for the accuracy of the note pressed
      */
-    public int evaluateScore(int height, int targetHeight, boolean triggered, boolean isSpecial) {
-        int distance = abs(height - targetHeight);
+    public int evaluateScore(double height, int targetHeight, boolean triggered, boolean isSpecial) {
+        double distance = abs(height - targetHeight);
 
         if (triggered && !isSpecial) {
             if (distance <= PERFECT_RADIUS) {
-                setAccuracy(PERFECT);
+                setAccuracy(Judgment.PERFECT);
                 return PERFECT_SCORE;
             } else if (distance <= GOOD_RADIUS) {
-                setAccuracy(GOOD);
+                setAccuracy(Judgment.GOOD);
                 return GOOD_SCORE;
             } else if (distance <= BAD_RADIUS) {
-                setAccuracy(BAD);
+                setAccuracy(Judgment.BAD);
                 return BAD_SCORE;
             } else if (distance <= MISS_RADIUS) {
-                setAccuracy(MISS);
+                setAccuracy(Judgment.MISS);
                 return MISS_SCORE;
             }
 
@@ -91,10 +157,10 @@ public class Accuracy {
             if (distance <= GOOD_RADIUS) {
                 return SPECIAL_SCORE;
             }
-        } else if (height >= (Window.getHeight())) {
+        } else if (height >= Playfield.HEIGHT) {
             // Missed special notes does not display message
             if (!isSpecial) {
-                setAccuracy(MISS);
+                setAccuracy(Judgment.MISS);
             }
             return MISS_SCORE;
         }
@@ -104,14 +170,20 @@ public class Accuracy {
     }
 
     /**
-     * Update the accuracy display for a limited number of frames
+     * Advance the accuracy display by one frame
      */
     public void update() {
         frameCount++;
+    }
+
+    /**
+     * Draw the accuracy message for a limited number of frames after it was set
+     *
+     * @param renderer The renderer to draw with
+     */
+    public void draw(Renderer renderer) {
         if (currAccuracy != null && frameCount < RENDER_FRAMES) {
-            ACCURACY_FONT.drawString(currAccuracy,
-                    (double) Window.getWidth() / 2 - ACCURACY_FONT.getWidth(currAccuracy) / 2,
-                    (double) Window.getHeight() / 2);
+            renderer.drawAccuracy(currAccuracy.getText());
         }
     }
 }
@@ -0,0 +1,173 @@
+import bagel.Keys;
+
+import java.io.IOException;
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Regression gate for the steady-state frame loop. Plays each level with a scripted input, drawing
+ * every frame the way the game does, with the score HUD, the level and the accuracy message drawn to
+ * a renderer and typeface that draw nothing. Measures the bytes allocated by this thread across the
+ * frames once the level is running, and exits with an error if any were allocated. Level 3's enemies
+ * are spawned from a fixed seed, so every run plays the same frames. Each level is measured
+ * {@link #MEASURED_RUNS} times after warming up until the JIT has finished compiling the frame loop of
+ * every level, and every run must allocate nothing. The build runs the gate in its verify phase.
+ * Usage: AllocationGate [frames per level]
+ */
+public class AllocationGate {
+    private static final String[] LEVELS = {"1", "2", "3"};
+    private static final Keys[] LANE_KEYS = {Keys.LEFT, Keys.RIGHT, Keys.UP, Keys.DOWN, Keys.SPACE};
+    private static final int MIN_WARMUP_ROUNDS = 5;
+    private static final int MAX_WARMUP_ROUNDS = 30;
+    private static final int MEASURED_RUNS = 3;
+    private static final int SETTLE_FRAMES = 120;
+    private static final int PRESS_PERIOD = 40;
+    private static final int HOLD_FRAMES = 6;
+    private static final int SHOOT_PERIOD = 45;
+    private static final long SEED = 1;
+    private static final double ALPHA = 0.5;
+    private static final double CHARACTER_WIDTH = 10;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    // null when the JVM runs without a JIT
+    private static final CompilationMXBean COMPILER = ManagementFactory.getCompilationMXBean();
+
+    /**
+     * A typeface that measures every character the same and draws nothing
+     */
+    private static class NullTypeface implements TextCache.Typeface {
+        @Override
+        public double getWidth(String text) {
+            return text.length() * CHARACTER_WIDTH;
+        }
+
+        @Override
+        public void drawString(String text, double x, double y) {
+            // nothing to draw to
+        }
+    }
+
+    /**
+     * A renderer that draws nothing, but lays out the accuracy message as the game's renderer does
+     */
+    private static class NullRenderer implements Renderer {
+        private final TextCache accuracyText = new TextCache(new NullTypeface());
+
+        @Override
+        public void drawImage(String path, double x, double y) {
+            // nothing to draw to
+        }
+
+        @Override
+        public void drawImage(String path, double x, double y, double rotation) {
+            // nothing to draw to
+        }
+
+        @Override
+        public void drawAccuracy(String text) {
+            accuracyText.drawCentred(text, Playfield.WIDTH / 2.0, Playfield.HEIGHT / 2.0);
+        }
+    }
+
+    /**
+     * The entry point for the allocation gate.
+     */
+    public static void main(String[] args) throws IOException, ChartFormatException {
+        int maxFrames = (args.length > 0) ? Integer.parseInt(args[0]) : Integer.MAX_VALUE;
+        NullRenderer renderer = new NullRenderer();
+        TextCache scoreText = new TextCache(new NullTypeface());
+        boolean passed = true;
+
+        warmUp(renderer, scoreText);
+        for (String name : LEVELS) {
+            for (int i = 0; i < MEASURED_RUNS; i++) {
+                Simulation simulation = new Simulation(Simulation.createLevel(name, SEED));
+                KeyStateInput input = new KeyStateInput();
+                play(simulation, input, renderer, scoreText, SETTLE_FRAMES);
+
+                long threadId = Thread.currentThread().getId();
+                long before = THREADS.getThreadAllocatedBytes(threadId);
+                int frames = play(simulation, input, renderer, scoreText, maxFrames);
+                long allocated = THREADS.getThreadAllocatedBytes(threadId) - before;
+
+                System.out.printf("Level %s run %d: %d bytes allocated over %d frames%n", name, i + 1, allocated, frames);
+                if (allocated > 0) {
+                    passed = false;
+                }
+            }
+        }
+
+        if (!passed) {
+            System.out.println("FAILED: the frame loop allocated memory in steady state");
+            System.exit(1);
+        }
+        System.out.println("PASSED");
+    }
+
+    /**
+     * Play every level in turn until a whole round compiles nothing new and allocates nothing, so the
+     * measured runs play compiled code that the JIT does not recompile, which could put objects it had
+     * optimised away back on the heap. The levels share most of their code, so they are warmed up
+     * together, or warming up one level would recompile the code another was measured with. Every run
+     * of a level plays the same frames, so an allocation in the frame loop itself never stops, and is
+     * caught by the measured runs after the last round.
+     */
+    private static void warmUp(Renderer renderer, TextCache scoreText) throws IOException, ChartFormatException {
+        long threadId = Thread.currentThread().getId();
+        long compileMillis = -1;
+        for (int round = 0; round < MAX_WARMUP_ROUNDS; round++) {
+            long allocated = 0;
+            for (String name : LEVELS) {
+                Simulation simulation = new Simulation(Simulation.createLevel(name, SEED));
+                KeyStateInput input = new KeyStateInput();
+                play(simulation, input, renderer, scoreText, SETTLE_FRAMES);
+                long settled = THREADS.getThreadAllocatedBytes(threadId);
+                play(simulation, input, renderer, scoreText, Integer.MAX_VALUE);
+                allocated += THREADS.getThreadAllocatedBytes(threadId) - settled;
+            }
+
+            long total = (COMPILER == null) ? 0 : COMPILER.getTotalCompilationTime();
+            if (round + 1 >= MIN_WARMUP_ROUNDS && total == compileMillis && allocated == 0) {
+                return;
+            }
+            compileMillis = total;
+        }
+    }
+
+    /**
+     * Step and draw a simulation with a scripted input that presses lane keys and shoots periodically,
+     * making the same draw calls as a frame of gameplay
+     *
+     * @return The number of frames simulated
+     */
+    private static int play(Simulation simulation, KeyStateInput input, Renderer renderer, TextCache scoreText,
+                            int maxFrames) {
+        Levels level = simulation.getLevel();
+        int frames = 0;
+        while (!simulation.isFinished() && frames < maxFrames) {
+            int frame = simulation.getCurrFrame();
+            for (int k = 0; k < LANE_KEYS.length; k++) {
+                int phase = (frame + k * 17) % PRESS_PERIOD;
+                if (phase == 0) {
+                    input.press(LANE_KEYS[k]);
+                } else if (phase == HOLD_FRAMES) {
+                    input.release(LANE_KEYS[k]);
+                }
+            }
+            if (frame % SHOOT_PERIOD == 0) {
+                input.press(Keys.LEFT_SHIFT);
+            } else {
+                input.release(Keys.LEFT_SHIFT);
+            }
+
+            ShadowDance.drawScore(scoreText, level.getScore());
+            simulation.step(input);
+            level.draw(renderer, ALPHA);
+            simulation.getAccuracy().draw(renderer);
+            input.endFrame();
+            frames++;
+        }
+        return frames;
+    }
+}
@@ -0,0 +1,34 @@
+/**
+ * Output for a level's music. Implementations must start quickly and hold a fixed amount of audio
+ * in memory, whatever the length of the song.
+ */
+public interface AudioBackend {
+    /**
+     * Start or resume playback
+     */
+    void play();
+
+    /**
+     * Pause playback, keeping the current position
+     */
+    void pause();
+
+    /**
+     * Get how much of the song has been played
+     *
+     * @return The playback position in microseconds
+     */
+    long getPositionMicros();
+
+    /**
+     * Check if the whole song has been played
+     *
+     * @return True if playback has reached the end
+     */
+    boolean isFinished();
+
+    /**
+     * Stop playback and release the audio device and file
+     */
+    void close();
+}
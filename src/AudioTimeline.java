@@ -0,0 +1,88 @@
+/**
+ * Derives the chart frame the game should be on from the music's playback position.
+ * <p>
+ * The audio position only moves when the device consumes a buffer, so the timeline predicts it
+ * with the system clock between readings and pulls the prediction a fraction of the way towards
+ * each reading. Small drift is corrected gradually without visible jumps. A large gap, such as
+ * after a stall or an underrun, is snapped to directly. The position never moves backwards.
+ */
+public class AudioTimeline {
+    private static final double FRAMES_PER_SECOND = 60;
+    private static final double MICROS_PER_SECOND = 1e6;
+    private static final double NANOS_PER_MICRO = 1e3;
+    private static final double SNAP_MICROS = 100_000;
+    private static final double CORRECTION = 0.1;
+
+    private final Track track;
+    private double positionMicros = 0;
+    private long lastNanos = 0;
+    private boolean anchored = false;
+
+    /**
+     * Constructor for a timeline following a track
+     *
+     * @param track The music of the level
+     */
+    public AudioTimeline(Track track) {
+        this.track = track;
+    }
+
+    /**
+     * Re-anchor the prediction to the audio position, called when playback resumes after a pause
+     */
+    public void reset() {
+        positionMicros = Math.max(positionMicros, track.getPositionMicros());
+        lastNanos = System.nanoTime();
+        anchored = true;
+    }
+
+    /**
+     * Read the audio position and update the chart position, called once per rendered frame
+     *
+     * @return How many frames the chart position moved on, which is never negative
+     */
+    public double update() {
+        double startMicros = positionMicros;
+        if (!anchored) {
+            reset();
+            return toFrames(positionMicros - startMicros);
+        }
+        long now = System.nanoTime();
+        double predicted = positionMicros + (now - lastNanos) / NANOS_PER_MICRO;
+        lastNanos = now;
+
+        if (!track.isFinished()) {
+            // once the song has ended the chart keeps running on the system clock alone
+            double error = track.getPositionMicros() - predicted;
+            predicted = (Math.abs(error) > SNAP_MICROS) ? predicted + error : predicted + error * CORRECTION;
+        }
+        positionMicros = Math.max(positionMicros, predicted);
+        return toFrames(positionMicros - startMicros);
+    }
+
+    /**
+     * Get the chart position at a moment near the last update, such as when a key event arrived
+     *
+     * @param nanos The moment from {@link System#nanoTime()}
+     * @return The chart position in frames, including the fraction of a frame
+     */
+    public double getFrameAt(long nanos) {
+        if (!anchored) {
+            return 0;
+        }
+        return toFrames(positionMicros + (nanos - lastNanos) / NANOS_PER_MICRO);
+    }
+
+    /**
+     * Get the chart frame matching the current position
+     *
+     * @return The target frame
+     */
+    public int getTargetFrame() {
+        return (int) toFrames(positionMicros);
+    }
+
+    private static double toFrames(double micros) {
+        return micros * FRAMES_PER_SECOND / MICROS_PER_SECOND;
+    }
+}
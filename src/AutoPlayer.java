@@ -0,0 +1,180 @@
+import bagel.Keys;
+
+import java.util.List;
+
+/**
+ * Bot that plays a level through the same input and judgment code as a player. Each press and
+ * release is timed to the sub-step at which the note reaches the target, shifted by a timing error
+ * drawn from the bot's {@link SkillProfile}, and some notes are let go by unplayed. Bombs are left
+ * alone, since clearing a lane can only lose score. In level 3 the bot shoots at enemies.
+ * <p>
+ * A note's errors depend only on the seed, its lane and its place in the lane, so bots with the same
+ * seed play the same however the lanes are split between them. The default bot plays perfectly.
+ */
+public class AutoPlayer {
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private static final double UNIT = 0x1.0p-53;
+    private static final int PRESS = 0;
+    private static final int RELEASE = 2;
+    private static final int DROP = 4;
+
+    private final KeyStateInput input = new KeyStateInput();
+    private final SkillProfile skill;
+    private final long seed;
+    private int enemyFrames = 0;
+
+    /**
+     * Constructor for a bot that plays perfectly
+     */
+    public AutoPlayer() {
+        this(SkillProfile.PERFECT, 0);
+    }
+
+    /**
+     * Constructor for a bot of a given skill
+     *
+     * @param skill How well the bot plays
+     * @param seed  The seed for the bot's timing errors and dropped notes
+     */
+    public AutoPlayer(SkillProfile skill, long seed) {
+        this.skill = skill;
+        this.seed = seed;
+    }
+
+    /**
+     * Decide the input for the next step of a level
+     *
+     * @param level The level about to be stepped
+     * @return The input to step the level with
+     */
+    public InputSource next(Levels level) {
+        next(level.getLanes(), level.getSpeedEffect());
+        shoot(level);
+        return input;
+    }
+
+    /**
+     * Decide the input for the next step of some of a level's lanes
+     *
+     * @param lanes The lanes to play, which no other player may share keys with
+     * @param speed The speed of the level before the step
+     * @return The input to step the lanes with
+     */
+    public InputSource next(List<Lane> lanes, int speed) {
+        input.endFrame();
+        for (int i = 0; i < lanes.size(); i++) {
+            play(lanes.get(i), speed);
+        }
+        return input;
+    }
+
+    /**
+     * Press or release a lane's key if its next note reaches the bot's timing during the coming step
+     */
+    private void play(Lane lane, int speed) {
+        Keys key = lane.getKey();
+        int note = nextNote(lane);
+        if (note >= 0 && lane.isHoldStarted(note)) {
+            // keep holding until the top of the note reaches the target
+            int top = lane.getNoteY(note) - HoldNote.HEIGHT_OFFSET + speed;
+            double target = Lane.TARGET_HEIGHT + getError(lane, note, RELEASE) * speed;
+            if (top >= target) {
+                input.release(key, getOffset(top, target, speed));
+            }
+            return;
+        }
+
+        // taps only keep the key down for one step, so the next note can be pressed again
+        input.release(key);
+        if (note < 0) {
+            return;
+        }
+        int bottom = lane.getNoteY(note) + speed
+                + (lane.getNoteKind(note) == NoteKind.HOLD ? HoldNote.HEIGHT_OFFSET : 0);
+        double target = Lane.TARGET_HEIGHT + getError(lane, note, PRESS) * speed;
+        if (bottom >= target) {
+            input.press(key, getOffset(bottom, target, speed));
+        }
+    }
+
+    /**
+     * Get the index of the first note in the lane that is on screen and that the bot plays
+     *
+     * @return The index of the note, or -1 if there is none
+     */
+    private int nextNote(Lane lane) {
+        for (int i = lane.getWindowStart(); i < lane.getWindowEnd(); i++) {
+            if (lane.isNoteActive(i) && lane.getNoteKind(i) != NoteKind.BOMB && !isDropped(lane, i)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Get how far into the coming step a note part reaches the bot's timing, as a key offset
+     */
+    private static int getOffset(int height, double target, int speed) {
+        if (speed <= 0) {
+            return 0;
+        }
+        return Math.min((int) ((height - target) * InputSource.SUB_STEPS / speed), InputSource.SUB_STEPS - 1);
+    }
+
+    /**
+     * Check if the bot lets a note go by without playing it
+     */
+    private boolean isDropped(Lane lane, int note) {
+        return skill.getDropRate() > 0 && uniform(lane, note, DROP) < skill.getDropRate();
+    }
+
+    /**
+     * Get the bot's timing error for pressing or releasing a note, normally distributed by the
+     * Box-Muller transform
+     *
+     * @return The error in frames, where a positive error is late
+     */
+    private double getError(Lane lane, int note, int part) {
+        if (skill.getTimingSpread() == 0) {
+            return skill.getTimingBias();
+        }
+        double radius = Math.sqrt(-2 * Math.log(1 - uniform(lane, note, part)));
+        double angle = 2 * Math.PI * uniform(lane, note, part + 1);
+        return skill.getTimingBias() + skill.getTimingSpread() * radius * Math.cos(angle);
+    }
+
+    /**
+     * Get a uniform random number from 0 to 1 that depends only on the seed, a note and what it is for
+     */
+    private double uniform(Lane lane, int note, int part) {
+        long hash = mix(seed + GOLDEN_GAMMA * (lane.getDirection().ordinal() + 1));
+        hash = mix(hash + GOLDEN_GAMMA * lane.getLocation());
+        hash = mix(hash + GOLDEN_GAMMA * note);
+        return (mix(hash + part) >>> 11) * UNIT;
+    }
+
+    /**
+     * The SplitMix64 finalizer, which spreads every input bit over the whole result
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Shoot at whatever the level has to shoot at, such as level 3's enemies, one shot at a time, once
+     * there has been a target for the bot's reaction time
+     */
+    private void shoot(Levels level) {
+        input.release(Keys.LEFT_SHIFT);
+        if (!level.hasShotTarget()) {
+            enemyFrames = 0;
+            return;
+        }
+        if (enemyFrames++ >= skill.getReactionFrames()) {
+            input.press(Keys.LEFT_SHIFT);
+            enemyFrames = 0;
+        }
+    }
+}
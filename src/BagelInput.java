@@ -0,0 +1,61 @@
+import bagel.Input;
+import bagel.Keys;
+
+/**
+ * Input source backed by the bagel input manager of the current frame, reading each lane's key
+ * from the physical key it is bound to
+ */
+public class BagelInput implements InputSource {
+    private final KeyBindings bindings;
+    private Input input;
+
+    /**
+     * Constructor for an input source with the default key bindings
+     */
+    public BagelInput() {
+        this(new KeyBindings());
+    }
+
+    /**
+     * Constructor for an input source with given key bindings
+     *
+     * @param bindings The physical keys that play each lane
+     */
+    public BagelInput(KeyBindings bindings) {
+        this.bindings = bindings;
+    }
+
+    /**
+     * Set the bagel input for the frame being simulated
+     *
+     * @param input The bagel input manager
+     */
+    public void setInput(Input input) {
+        this.input = input;
+    }
+
+    @Override
+    public boolean wasPressed(Keys key) {
+        return input.wasPressed(bindings.toPhysicalKey(key));
+    }
+
+    @Override
+    public boolean wasReleased(Keys key) {
+        return input.wasReleased(bindings.toPhysicalKey(key));
+    }
+
+    @Override
+    public boolean isDown(Keys key) {
+        return input.isDown(bindings.toPhysicalKey(key));
+    }
+
+    @Override
+    public int getPressOffset(Keys key) {
+        return 0;
+    }
+
+    @Override
+    public int getReleaseOffset(Keys key) {
+        return 0;
+    }
+}
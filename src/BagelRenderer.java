@@ -0,0 +1,27 @@
+import bagel.DrawOptions;
+import bagel.Font;
+import bagel.Window;
+
+/**
+ * Renderer that draws game objects into the bagel window using shared textures from the image cache
+ */
+public class BagelRenderer implements Renderer {
+    private final Font ACCURACY_FONT = new Font(ShadowDance.FONT_FILE, 40);
+    private final TextCache accuracyText = new TextCache(ACCURACY_FONT);
+    private final DrawOptions rotationOptions = new DrawOptions();
+
+    @Override
+    public void drawImage(String path, double x, double y) {
+        ImageCache.get(path).draw(x, y);
+    }
+
+    @Override
+    public void drawImage(String path, double x, double y, double rotation) {
+        ImageCache.get(path).draw(x, y, rotationOptions.setRotation(rotation));
+    }
+
+    @Override
+    public void drawAccuracy(String text) {
+        accuracyText.drawCentred(text, Window.getWidth() / 2, Window.getHeight() / 2);
+    }
+}
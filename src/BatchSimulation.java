@@ -0,0 +1,494 @@
+import bagel.Keys;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Plays a level headlessly with its lanes on fork-join workers, for checking large charts and
+ * evaluating bots on them. Lanes only share the level's speed, score multiplier and score, so the
+ * level is played in slices of frames: the lanes whose notes change the speed or multiplier are
+ * played in order first, recording the speed and multiplier every other lane sees on each frame,
+ * then the other lanes play the slice in parallel. Scores and judgments are merged back in lane
+ * order for each frame, so the score, judgments, events and trace hash match playing the level
+ * with {@link Simulation}, frame for frame.
+ * <p>
+ * Every lane is played by an {@link AutoPlayer}, and lanes sharing a key are played together.
+ * Usage: BatchSimulation &lt;1|2|chart.csv&gt; [-packed] [-slice frames] [-threads n] [-runs n]
+ */
+public class BatchSimulation {
+    private static final int DEFAULT_SLICE_FRAMES = 256;
+    private static final int DEFAULT_RUNS = 10;
+    private static final double NANOS_PER_MILLI = 1e6;
+    private static final Judgment[] JUDGMENTS = Judgment.values();
+    private static final SpecialEffect[] EFFECTS = SpecialEffect.values();
+
+    private final Levels level;
+    private final List<Lane> lanes;
+    private final int sliceFrames;
+    private final ForkJoinPool pool;
+    private final Accuracy accuracy = new Accuracy();
+    private final GameEventStream events = new GameEventStream();
+    private final JudgmentLog[] logs;
+    private final boolean[] sequential;
+    private final List<Lane> sequentialLanes = new ArrayList<>();
+    private final AutoPlayer sequentialPlayer = new AutoPlayer();
+    private final LaneGroup[] groups;
+
+    // what each lane saw and scored on each frame of the current slice, indexed by lane then frame
+    private final int[][] speeds;
+    private final int[][] multipliers;
+    private final int[][] scores;
+    private final int[] startSpeeds;
+    private final int[] endFrameCounts;
+    private final int[] endMultipliers;
+    private final int[] finishFrames;
+
+    private int levelFrame = 0;
+    private int currFrame = 0;
+    private boolean finished = false;
+    private long trace = 0;
+
+    /**
+     * The judgments and effects of one lane, kept until they are merged in lane order
+     */
+    private static class JudgmentLog extends Accuracy {
+        private int[] frames = new int[DEFAULT_SLICE_FRAMES];
+        private int[] codes = new int[DEFAULT_SLICE_FRAMES];
+        private int size = 0;
+        private int merged = 0;
+        private int frame = 0;
+
+        @Override
+        public void setAccuracy(Judgment accuracy) {
+            add(accuracy.ordinal());
+        }
+
+        @Override
+        public void showEffect(SpecialEffect effect) {
+            add(~effect.ordinal());
+        }
+
+        private void add(int code) {
+            if (size == frames.length) {
+                frames = Arrays.copyOf(frames, size * 2);
+                codes = Arrays.copyOf(codes, size * 2);
+            }
+            frames[size] = frame;
+            codes[size] = code;
+            size++;
+        }
+
+        /**
+         * Give the judgments and effects of a frame to the accuracy manager that is kept for the level
+         */
+        private void merge(int frame, Accuracy accuracy, LaneDirection direction) {
+            accuracy.setLane(direction);
+            for (; merged < size && frames[merged] == frame; merged++) {
+                int code = codes[merged];
+                if (code >= 0) {
+                    accuracy.setAccuracy(JUDGMENTS[code]);
+                } else {
+                    accuracy.showEffect(EFFECTS[~code]);
+                }
+            }
+        }
+
+        private void clear() {
+            size = 0;
+            merged = 0;
+        }
+    }
+
+    /**
+     * A stand-in for the level that lanes played in parallel see, giving each lane the speed and
+     * multiplier recorded for it and keeping it from touching the level's shared state
+     */
+    private static class LaneView extends Levels {
+        private int frame = 0;
+        private int speed = 0;
+        private int multiplier = 0;
+
+        private LaneView() {
+            super(0, null);
+        }
+
+        @Override
+        public int getCurrFrame() {
+            return frame;
+        }
+
+        @Override
+        public int getSpeedEffect() {
+            return speed;
+        }
+
+        @Override
+        public int getScoreMultiplier() {
+            return multiplier;
+        }
+
+        @Override
+        public void setFrameCount(int frameCount) {
+            // counted for every lane when the slice's shared state was recorded
+        }
+
+        @Override
+        public void setScoreMultiplier(int scoreMultiplier) {
+            // only lanes with level effects change it, and those are played in order
+        }
+    }
+
+    /**
+     * Lanes that share a key and are played together by one worker
+     */
+    private static class LaneGroup {
+        private final List<Lane> lanes = new ArrayList<>();
+        private final List<Integer> indices = new ArrayList<>();
+        private final AutoPlayer player = new AutoPlayer();
+        private final LaneView view = new LaneView();
+    }
+
+    /**
+     * Constructor for a batch simulation of a level
+     *
+     * @param level       The level to simulate, which must have independent lanes
+     * @param sliceFrames The number of frames lanes are played apart before their results are merged
+     * @param pool        The pool the lanes are played on
+     * @throws IllegalArgumentException If the level's lanes are not independent
+     */
+    public BatchSimulation(Levels level, int sliceFrames, ForkJoinPool pool) {
+        if (!level.hasIndependentLanes()) {
+            throw new IllegalArgumentException("the level's lanes cannot be played apart");
+        }
+        this.level = level;
+        this.lanes = level.getLanes();
+        this.sliceFrames = sliceFrames;
+        this.pool = pool;
+        level.setClock(() -> levelFrame);
+        level.setEvents(events);
+        accuracy.setEvents(events);
+
+        int laneCount = lanes.size();
+        logs = new JudgmentLog[laneCount];
+        sequential = new boolean[laneCount];
+        speeds = new int[laneCount][sliceFrames];
+        multipliers = new int[laneCount][sliceFrames];
+        scores = new int[laneCount][sliceFrames];
+        startSpeeds = new int[sliceFrames];
+        endFrameCounts = new int[sliceFrames];
+        endMultipliers = new int[sliceFrames];
+        finishFrames = new int[laneCount];
+        Arrays.fill(finishFrames, -1);
+
+        // lanes sharing a key with a lane that has level effects are played in order along with it
+        Map<Keys, LaneGroup> byKey = new LinkedHashMap<>();
+        for (int i = 0; i < laneCount; i++) {
+            logs[i] = new JudgmentLog();
+            byKey.computeIfAbsent(lanes.get(i).getKey(), key -> new LaneGroup()).indices.add(i);
+        }
+        List<LaneGroup> parallel = new ArrayList<>();
+        for (LaneGroup group : byKey.values()) {
+            boolean effects = false;
+            for (int i : group.indices) {
+                effects |= lanes.get(i).hasLevelEffects();
+            }
+            for (int i : group.indices) {
+                sequential[i] = effects;
+                group.lanes.add(lanes.get(i));
+            }
+            if (!effects) {
+                parallel.add(group);
+            }
+        }
+        for (int i = 0; i < laneCount; i++) {
+            if (sequential[i]) {
+                sequentialLanes.add(lanes.get(i));
+            }
+        }
+        groups = parallel.toArray(new LaneGroup[0]);
+    }
+
+    /**
+     * Play the level until it is finished
+     *
+     * @return The number of frames simulated
+     */
+    public int run() {
+        while (!step()) {
+            // keep playing slices until every lane is finished
+        }
+        return currFrame;
+    }
+
+    /**
+     * Play one slice of frames and merge it into the level, publishing the slice's events
+     *
+     * @return True if the level is finished
+     */
+    public boolean step() {
+        if (!finished) {
+            int firstFrame = currFrame + 1;
+            playSequential(firstFrame);
+            if (groups.length > 0) {
+                // a parallel stream started from the pool's own task runs on that pool
+                pool.submit(() -> IntStream.range(0, groups.length).parallel()
+                        .forEach(group -> playGroup(groups[group], firstFrame))).join();
+            }
+            merge(firstFrame);
+        }
+        return finished;
+    }
+
+    /**
+     * Play the lanes with level effects through a slice in lane order, recording the speed and
+     * multiplier each of the other lanes sees on each frame
+     */
+    private void playSequential(int firstFrame) {
+        for (int t = 0; t < sliceFrames; t++) {
+            levelFrame = firstFrame + t;
+            startSpeeds[t] = level.getSpeedEffect();
+            InputSource input = sequentialPlayer.next(sequentialLanes, level.getSpeedEffect());
+            for (int i = 0; i < lanes.size(); i++) {
+                Lane lane = lanes.get(i);
+                if (sequential[i]) {
+                    logs[i].frame = levelFrame;
+                    scores[i][t] = lane.update(input, logs[i], level);
+                    recordFinish(i, levelFrame);
+                } else {
+                    Lane.countEffectFrame(level);
+                    speeds[i][t] = level.getSpeedEffect();
+                    multipliers[i][t] = level.getScoreMultiplier();
+                }
+            }
+            endFrameCounts[t] = level.getFrameCount();
+            endMultipliers[t] = level.getScoreMultiplier();
+        }
+    }
+
+    /**
+     * Play a group of lanes without level effects through a slice
+     */
+    private void playGroup(LaneGroup group, int firstFrame) {
+        LaneView view = group.view;
+        for (int t = 0; t < sliceFrames; t++) {
+            int frame = firstFrame + t;
+            InputSource input = group.player.next(group.lanes, startSpeeds[t]);
+            for (int j = 0; j < group.lanes.size(); j++) {
+                int i = group.indices.get(j);
+                view.frame = frame;
+                view.speed = speeds[i][t];
+                view.multiplier = multipliers[i][t];
+                logs[i].frame = frame;
+                scores[i][t] = group.lanes.get(j).update(input, logs[i], view);
+                recordFinish(i, frame);
+            }
+        }
+    }
+
+    private void recordFinish(int lane, int frame) {
+        if (finishFrames[lane] < 0 && lanes.get(lane).isFinished()) {
+            finishFrames[lane] = frame;
+        }
+    }
+
+    /**
+     * Add each frame's scores and judgments to the level in lane order, stopping at the frame the
+     * last lane finished, where the level's shared state is wound back to
+     */
+    private void merge(int firstFrame) {
+        int finishFrame = firstFrame;
+        for (int frame : finishFrames) {
+            if (frame < 0) {
+                finishFrame = Integer.MAX_VALUE;
+                break;
+            }
+            finishFrame = Math.max(finishFrame, frame);
+        }
+
+        for (int t = 0; t < sliceFrames && !finished; t++) {
+            currFrame = firstFrame + t;
+            events.setFrame(currFrame);
+            for (int i = 0; i < lanes.size(); i++) {
+                level.addScore(scores[i][t]);
+                logs[i].merge(currFrame, accuracy, lanes.get(i).getDirection());
+            }
+            accuracy.update();
+            trace = (trace * 31 + level.getScore()) * 31 + accuracy.getJudgmentTrace();
+
+            if (currFrame >= finishFrame) {
+                finished = true;
+                levelFrame = currFrame;
+                level.setFrameCount(endFrameCounts[t]);
+                level.setScoreMultiplier(endMultipliers[t]);
+            }
+        }
+        for (JudgmentLog log : logs) {
+            log.clear();
+        }
+    }
+
+    /**
+     * Get a hash of the score and judgments after every step, equal to {@link Simulation#getTraceHash()}
+     * for the same level played by an {@link AutoPlayer}
+     *
+     * @return The trace hash
+     */
+    public long getTraceHash() {
+        return trace;
+    }
+
+    /**
+     * Get the stream of judgments and effects, which are published a slice at a time
+     *
+     * @return The event stream
+     */
+    public GameEventStream getEvents() {
+        return events;
+    }
+
+    /**
+     * Get the simulated level
+     *
+     * @return The level
+     */
+    public Levels getLevel() {
+        return level;
+    }
+
+    /**
+     * Get the accuracy manager of the simulation
+     *
+     * @return The accuracy manager
+     */
+    public Accuracy getAccuracy() {
+        return accuracy;
+    }
+
+    /**
+     * Get the current frame of the simulation
+     *
+     * @return The current frame number
+     */
+    public int getCurrFrame() {
+        return currFrame;
+    }
+
+    /**
+     * Check if the level is finished
+     *
+     * @return True if the level is finished
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    private static Levels createLevel(String name, boolean packed) throws IOException, ChartFormatException {
+        return packed ? new ChartLevel(Simulation.getChartFile(name), true) : Simulation.createLevel(name, 0);
+    }
+
+    /**
+     * Fold the events published since the last call into a hash of every event's fields, so two plays
+     * can be compared event by event
+     */
+    private static long hashEvents(GameEventStream.Subscription events, long hash) {
+        while (events.poll()) {
+            GameEventType type = events.getType();
+            int code = (type == GameEventType.NOTE_JUDGED) ? events.getJudgment().ordinal()
+                    : (type == GameEventType.EFFECT_APPLIED) ? events.getEffect().ordinal() : 0;
+            hash = hash * 31 + type.ordinal();
+            hash = hash * 31 + events.getFrame();
+            hash = hash * 31 + ((events.getLane() == null) ? -1 : events.getLane().ordinal());
+            hash = (hash * 31 + code) * 31 + events.getScore();
+        }
+        return hash;
+    }
+
+    /**
+     * Plays a chart with an {@link AutoPlayer} both in order and in parallel, checking that the score,
+     * trace hash and events of the two agree, and reporting the time each took. Exits with an error if
+     * they do not agree, or if either play published events faster than they were read.
+     */
+    public static void main(String[] args) {
+        String chart = null;
+        boolean packed = false;
+        int sliceFrames = DEFAULT_SLICE_FRAMES;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int runs = DEFAULT_RUNS;
+        try {
+            CommandLine line = new CommandLine(args, new String[]{"-slice", "-threads", "-runs"}, "-packed");
+            packed = line.has("-packed");
+            sliceFrames = line.getInt("-slice", sliceFrames);
+            threads = line.getInt("-threads", threads);
+            runs = line.getInt("-runs", runs);
+            if (line.getArguments().size() == 1) {
+                chart = line.getArguments().get(0);
+            }
+        } catch (IllegalArgumentException e) {
+            chart = null;
+        }
+        if (chart == null || chart.equals("3") || sliceFrames < 1 || threads < 1 || runs < 1) {
+            System.err.println("Usage: BatchSimulation <1|2|chart.csv> [-packed] [-slice frames] [-threads n] [-runs n]");
+            System.exit(-1);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long sequentialNanos = 0;
+        long batchNanos = 0;
+        boolean matches = true;
+        BatchSimulation batch = null;
+        try {
+            for (int run = 0; run < runs; run++) {
+                Levels level = createLevel(chart, packed);
+                long start = System.nanoTime();
+                Simulation simulation = new Simulation(level);
+                GameEventStream.Subscription sequentialEvents = simulation.getEvents().subscribe();
+                long sequentialHash = 0;
+                AutoPlayer player = new AutoPlayer();
+                while (!simulation.step(player.next(level))) {
+                    sequentialHash = hashEvents(sequentialEvents, sequentialHash);
+                }
+                sequentialHash = hashEvents(sequentialEvents, sequentialHash);
+                sequentialNanos += System.nanoTime() - start;
+
+                level = createLevel(chart, packed);
+                start = System.nanoTime();
+                batch = new BatchSimulation(level, sliceFrames, pool);
+                GameEventStream.Subscription batchEvents = batch.getEvents().subscribe();
+                long batchHash = 0;
+                while (!batch.step()) {
+                    batchHash = hashEvents(batchEvents, batchHash);
+                }
+                batchHash = hashEvents(batchEvents, batchHash);
+                batchNanos += System.nanoTime() - start;
+
+                if (sequentialEvents.getMissedCount() > 0 || batchEvents.getMissedCount() > 0) {
+                    throw new IllegalArgumentException("more events were published in a slice than the event"
+                            + " stream holds, so they cannot be compared; try a smaller slice");
+                }
+                matches &= batch.getCurrFrame() == simulation.getCurrFrame()
+                        && batch.getLevel().getScore() == simulation.getLevel().getScore()
+                        && batch.getTraceHash() == simulation.getTraceHash()
+                        && batchHash == sequentialHash;
+            }
+        } catch (IllegalArgumentException | IOException | ChartFormatException e) {
+            System.err.println("error: " + e.getMessage());
+            System.exit(1);
+        } finally {
+            pool.shutdown();
+        }
+
+        System.out.printf("%s: %d lanes, %d frames, score %d, in order %.1f ms, on %d threads %.1f ms, %s%n",
+                chart, batch.lanes.size(), batch.getCurrFrame(), batch.getLevel().getScore(),
+                sequentialNanos / NANOS_PER_MILLI / runs, threads, batchNanos / NANOS_PER_MILLI / runs,
+                matches ? "matches" : "MISMATCH");
+        if (!matches) {
+            System.exit(1);
+        }
+    }
+}
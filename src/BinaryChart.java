@@ -0,0 +1,137 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A compiled chart read through a memory-mapped file. Only the header and lane table are read
+ * when the chart is opened; note records are read from the mapping when they are asked for.
+ */
+public class BinaryChart implements ChartSource {
+    private static final int HEADER_BYTES = 4 + 2 + 2;
+    private static final int MAX_LANE_NAME = 255;
+
+    private final ByteBuffer buffer;
+    private final String[] laneTypes;
+    private final int[] laneLocations;
+    private final int noteCount;
+    private final int notesOffset;
+
+    private BinaryChart(String path, ByteBuffer buffer) throws ChartFormatException {
+        this.buffer = buffer;
+        try {
+            if (buffer.getInt() != ChartFormat.MAGIC) {
+                throw new ChartFormatException(path, "not a compiled chart");
+            }
+            short version = buffer.getShort();
+            if (version != ChartFormat.VERSION) {
+                throw new ChartFormatException(path, "unsupported chart version " + version);
+            }
+            int laneCount = buffer.getShort();
+            laneTypes = new String[laneCount];
+            laneLocations = new int[laneCount];
+            for (int i = 0; i < laneCount; i++) {
+                laneLocations[i] = buffer.getInt();
+                byte[] name = new byte[buffer.get() & 0xFF];
+                buffer.get(name);
+                laneTypes[i] = new String(name, StandardCharsets.US_ASCII);
+            }
+            noteCount = buffer.getInt();
+            notesOffset = buffer.position();
+        } catch (BufferUnderflowException e) {
+            throw new ChartFormatException(path, "truncated header");
+        }
+        if (noteCount < 0 || (long) noteCount * ChartFormat.NOTE_RECORD_BYTES != buffer.limit() - notesOffset) {
+            throw new ChartFormatException(path, "note table does not match the file size");
+        }
+    }
+
+    /**
+     * Map a compiled chart into memory
+     *
+     * @param path The file path to the compiled chart
+     * @return The chart
+     * @throws IOException          If the file cannot be mapped
+     * @throws ChartFormatException If the header is invalid
+     */
+    public static BinaryChart open(String path) throws IOException, ChartFormatException {
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new ChartFormatException(path, "truncated header");
+            }
+            // the mapping stays valid after the channel is closed
+            return new BinaryChart(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Write a chart in the compiled format
+     *
+     * @param chart The chart, with notes sorted by appearance frame
+     * @param path  The file path to write to
+     * @throws IOException If the file cannot be written
+     */
+    public static void write(ChartSource chart, String path) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path)))) {
+            out.writeInt(ChartFormat.MAGIC);
+            out.writeShort(ChartFormat.VERSION);
+            out.writeShort(chart.getLaneCount());
+            for (int i = 0; i < chart.getLaneCount(); i++) {
+                byte[] name = chart.getLaneType(i).getBytes(StandardCharsets.US_ASCII);
+                if (name.length > MAX_LANE_NAME) {
+                    throw new IOException("lane type too long: " + chart.getLaneType(i));
+                }
+                out.writeInt(chart.getLaneLocation(i));
+                out.writeByte(name.length);
+                out.write(name);
+            }
+            out.writeInt(chart.getNoteCount());
+            for (int i = 0; i < chart.getNoteCount(); i++) {
+                out.writeInt(chart.getNoteFrame(i));
+                out.writeByte(chart.getNoteLane(i));
+                out.writeByte(chart.getNoteType(i));
+            }
+        }
+    }
+
+    @Override
+    public int getLaneCount() {
+        return laneTypes.length;
+    }
+
+    @Override
+    public String getLaneType(int lane) {
+        return laneTypes[lane];
+    }
+
+    @Override
+    public int getLaneLocation(int lane) {
+        return laneLocations[lane];
+    }
+
+    @Override
+    public int getNoteCount() {
+        return noteCount;
+    }
+
+    @Override
+    public int getNoteFrame(int note) {
+        return buffer.getInt(notesOffset + note * ChartFormat.NOTE_RECORD_BYTES);
+    }
+
+    @Override
+    public int getNoteLane(int note) {
+        return buffer.get(notesOffset + note * ChartFormat.NOTE_RECORD_BYTES + 4) & 0xFF;
+    }
+
+    @Override
+    public int getNoteType(int note) {
+        return buffer.get(notesOffset + note * ChartFormat.NOTE_RECORD_BYTES + 5) & 0xFF;
+    }
+}
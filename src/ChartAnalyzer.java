@@ -0,0 +1,303 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.IntStream;
+
+/**
+ * Analyzes charts without playing them: each chart is played by an {@link AutoPlayer} to find the
+ * highest score it allows, with double score windows and speed changes applied as in the game, and
+ * checked for dropped lines, notes that overlap in a lane, notes judged by another note's press and
+ * note density. A chart that even a perfect play cannot play perfectly is always warned about.
+ * Charts are analyzed in parallel on the fork-join pool and the results are printed as JSON.
+ * <p>
+ * Level 3's enemies are not simulated, so its maximum assumes the guardian protects every note.
+ * Usage: ChartAnalyzer [chart.csv|directory]...
+ */
+public class ChartAnalyzer {
+    private static final String DEFAULT_DIRECTORY = "res";
+    private static final String[] LEVEL_NAMES = {"1", "2", "3"};
+    private static final String[] LEVEL_CHARTS = {Level1.CSV_FILE, Level2.CSV_FILE, Level3.CSV_FILE};
+    private static final int[] CLEAR_SCORES = {Level1.CLEAR_SCORE, Level2.CLEAR_SCORE, Level3.CLEAR_SCORE};
+    private static final int FRAMES_PER_SECOND = 60;
+    private static final int MAX_FRAMES = 1 << 20;
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    /**
+     * The analysis of one chart
+     */
+    private static class Report {
+        private final String chart;
+        private final List<String> warnings = new ArrayList<>();
+        private String level = null;
+        private int clearScore = 0;
+        private int lanes = 0;
+        private int notes = 0;
+        private int frames = 0;
+        private int peakNotesPerSecond = 0;
+        private int maxScore = 0;
+        private int imperfectJudgments = 0;
+        private String error = null;
+
+        private Report(String chart) {
+            this.chart = chart;
+        }
+    }
+
+    /**
+     * Analyze a chart, recording any problem reading it in the report
+     */
+    private static void analyze(Report report) {
+        try {
+            CsvChart chart = CsvChart.read(report.chart, false);
+            report.warnings.addAll(chart.getWarnings());
+            findLevel(report);
+
+            ChartLevel level = new ChartLevel(chart, report.clearScore);
+            report.lanes = chart.getLaneCount();
+            report.notes = chart.getNoteCount();
+            report.peakNotesPerSecond = getPeakNotesPerSecond(chart);
+            checkOverlaps(report, level);
+            playPerfectly(report, level, getExpectedPerfects(chart), getExpectedEffects(chart));
+        } catch (IOException | ChartFormatException e) {
+            report.error = e.getMessage();
+        }
+    }
+
+    /**
+     * Fill in the level name and clear score if the chart belongs to one of the built-in levels
+     */
+    private static void findLevel(Report report) {
+        Path path = Paths.get(report.chart).toAbsolutePath().normalize();
+        for (int i = 0; i < LEVEL_CHARTS.length; i++) {
+            if (path.equals(Paths.get(LEVEL_CHARTS[i]).toAbsolutePath().normalize())) {
+                report.level = LEVEL_NAMES[i];
+                report.clearScore = CLEAR_SCORES[i];
+            }
+        }
+    }
+
+    /**
+     * Get the most notes that appear within any one second of the chart
+     */
+    private static int getPeakNotesPerSecond(ChartSource chart) {
+        int peak = 0;
+        int start = 0;
+        for (int end = 0; end < chart.getNoteCount(); end++) {
+            while (chart.getNoteFrame(end) - chart.getNoteFrame(start) >= FRAMES_PER_SECOND) {
+                start++;
+            }
+            peak = Math.max(peak, end - start + 1);
+        }
+        return peak;
+    }
+
+    /**
+     * Get the number of perfect judgments a perfect player makes, which is one per normal note
+     * and two per hold note
+     */
+    private static int getExpectedPerfects(ChartSource chart) {
+        int perfects = 0;
+        for (int i = 0; i < chart.getNoteCount(); i++) {
+            if (chart.getNoteType(i) == ChartFormat.NORMAL) {
+                perfects++;
+            } else if (chart.getNoteType(i) == ChartFormat.HOLD) {
+                perfects += 2;
+            }
+        }
+        return perfects;
+    }
+
+    /**
+     * Get the number of special notes other than bombs, each of which a perfect player hits to start its effect
+     */
+    private static int getExpectedEffects(ChartSource chart) {
+        int effects = 0;
+        for (int i = 0; i < chart.getNoteCount(); i++) {
+            SpecialEffect effect = NoteKind.fromCode(chart.getNoteType(i)).getEffect();
+            if (effect != null && effect != SpecialEffect.BOMB) {
+                effects++;
+            }
+        }
+        return effects;
+    }
+
+    /**
+     * Warn about notes in the same lane that have to be played before the previous one is finished,
+     * that are judged when a hold note before them is pressed, or that are so soon after a bomb that
+     * pressing them sets the bomb off, at the speed the level starts at. Pressing a hold note does not
+     * finish it, so the press goes on to judge the next note if it is within its judging radius of the
+     * target, which is the miss radius for normal and hold notes and the good radius for special notes.
+     */
+    private static void checkOverlaps(Report report, Levels level) {
+        double speed = level.getSpeedEffect();
+        for (Lane lane : level.getLanes()) {
+            // the lane sorts its notes by appearance frame once it is played, keeping chart order within a frame
+            Integer[] order = new Integer[lane.getResidentCount()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparingInt(lane::getNoteFrame));
+
+            int previous = -1;
+            double previousEnd = Double.NEGATIVE_INFINITY;
+            int hold = -1;
+            double holdAt = Double.NEGATIVE_INFINITY;
+            int bomb = -1;
+            double bombAt = Double.NEGATIVE_INFINITY;
+            for (int i : order) {
+                NoteKind kind = lane.getNoteKind(i);
+                int offset = (kind == NoteKind.HOLD) ? HoldNote.HEIGHT_OFFSET : 0;
+                int radius = (kind.getEffect() == null) ? Accuracy.MISS_RADIUS : Accuracy.GOOD_RADIUS;
+                double start = lane.getNoteFrame(i) + (Lane.TARGET_HEIGHT - lane.getNoteY(i) - offset) / speed;
+                double end = lane.getNoteFrame(i) + (Lane.TARGET_HEIGHT - lane.getNoteY(i) + offset) / speed;
+                String type = lane.getDirection().getTypeName();
+                if (previous >= 0 && start <= previousEnd) {
+                    report.warnings.add(String.format("%s notes at frames %d and %d overlap",
+                            type, lane.getNoteFrame(previous), lane.getNoteFrame(i)));
+                } else if (hold >= 0 && start - holdAt <= radius / speed) {
+                    report.warnings.add(String.format("%s note at frame %d is judged when the hold note at frame %d is pressed",
+                            type, lane.getNoteFrame(i), lane.getNoteFrame(hold)));
+                } else if (bomb >= 0 && start - bombAt <= Accuracy.GOOD_RADIUS / speed) {
+                    report.warnings.add(String.format("%s note at frame %d sets off the bomb at frame %d",
+                            type, lane.getNoteFrame(i), lane.getNoteFrame(bomb)));
+                }
+
+                if (kind == NoteKind.HOLD) {
+                    hold = i;
+                    holdAt = start;
+                } else if (kind == NoteKind.BOMB) {
+                    bomb = i;
+                    bombAt = start;
+                }
+                previous = i;
+                previousEnd = Math.max(previousEnd, end);
+            }
+        }
+    }
+
+    /**
+     * Play the level with perfect timing to find its maximum score. Every judgment but a perfect one,
+     * every special note that does not start its effect and every bomb that is set off is counted as
+     * imperfect, and warned about, since a perfect play should make none.
+     */
+    private static void playPerfectly(Report report, Levels level, int expectedPerfects, int expectedEffects) {
+        Simulation simulation = new Simulation(level);
+        AutoPlayer player = new AutoPlayer();
+        while (!simulation.isFinished() && simulation.getCurrFrame() < MAX_FRAMES) {
+            simulation.step(player.next(level));
+        }
+        if (!simulation.isFinished()) {
+            report.warnings.add("chart does not finish within " + MAX_FRAMES + " frames");
+        }
+        Accuracy accuracy = simulation.getAccuracy();
+        int effects = accuracy.getCount(Judgment.SPEED_UP) + accuracy.getCount(Judgment.SLOW_DOWN)
+                + accuracy.getCount(Judgment.DOUBLE_SCORE);
+        report.frames = simulation.getCurrFrame();
+        report.maxScore = level.getScore();
+        report.imperfectJudgments = expectedPerfects - accuracy.getCount(Judgment.PERFECT)
+                + expectedEffects - effects + accuracy.getCount(Judgment.LANE_CLEAR);
+        if (report.imperfectJudgments > 0) {
+            report.warnings.add(String.format("a perfect play makes %d imperfect judgments, so the maximum score "
+                    + "is below what the notes are worth", report.imperfectJudgments));
+        }
+    }
+
+    /**
+     * Play a chart with perfect timing and count its imperfect judgments, which is 0 for a chart that
+     * a perfect player can play perfectly
+     *
+     * @param csvFile The chart file
+     * @return The number of imperfect judgments a perfect play makes
+     * @throws IOException          If the chart cannot be read
+     * @throws ChartFormatException If the chart is malformed
+     */
+    public static int countImperfectJudgments(String csvFile) throws IOException, ChartFormatException {
+        CsvChart chart = CsvChart.read(csvFile, false);
+        Report report = new Report(csvFile);
+        playPerfectly(report, new ChartLevel(chart, 0), getExpectedPerfects(chart), getExpectedEffects(chart));
+        return report.imperfectJudgments;
+    }
+
+    /**
+     * Write a report as a JSON object
+     */
+    private static void appendJson(StringBuilder json, Report report) {
+        json.append("{\"chart\": ").append(quote(report.chart));
+        if (report.error != null) {
+            json.append(", \"error\": ").append(quote(report.error)).append('}');
+            return;
+        }
+        json.append(", \"level\": ").append(report.level == null ? "null" : quote(report.level))
+                .append(", \"lanes\": ").append(report.lanes)
+                .append(", \"notes\": ").append(report.notes)
+                .append(", \"frames\": ").append(report.frames)
+                .append(String.format(Locale.ROOT, ", \"averageNotesPerSecond\": %.2f",
+                        report.frames == 0 ? 0 : report.notes * (double) FRAMES_PER_SECOND / report.frames))
+                .append(", \"peakNotesPerSecond\": ").append(report.peakNotesPerSecond)
+                .append(", \"maxScore\": ").append(report.maxScore);
+        if (report.level != null) {
+            json.append(", \"clearScore\": ").append(report.clearScore)
+                    .append(", \"clearable\": ").append(report.maxScore >= report.clearScore);
+        }
+        json.append(", \"imperfectJudgments\": ").append(report.imperfectJudgments)
+                .append(", \"warnings\": [");
+        for (int i = 0; i < report.warnings.size(); i++) {
+            json.append(i == 0 ? "" : ", ").append(quote(report.warnings.get(i)));
+        }
+        json.append("]}");
+    }
+
+    /**
+     * Quote a string for JSON
+     */
+    private static String quote(String text) {
+        StringBuilder quoted = new StringBuilder("\"");
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < ' ') {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    /**
+     * The entry point for chart analysis, which analyzes the charts in res/ if none are given.
+     */
+    public static void main(String[] args) {
+        long start = System.nanoTime();
+        List<String> charts = ChartCompiler.findCharts(args.length == 0 ? new String[]{DEFAULT_DIRECTORY} : args);
+        Report[] reports = new Report[charts.size()];
+        for (int i = 0; i < reports.length; i++) {
+            reports[i] = new Report(charts.get(i));
+        }
+        IntStream.range(0, reports.length).parallel().forEach(i -> analyze(reports[i]));
+        double millis = (System.nanoTime() - start) / NANOS_PER_MILLI;
+
+        StringBuilder json = new StringBuilder("{\"charts\": [\n");
+        int errors = 0;
+        for (int i = 0; i < reports.length; i++) {
+            json.append("  ");
+            appendJson(json, reports[i]);
+            json.append(i + 1 < reports.length ? ",\n" : "\n");
+            if (reports[i].error != null) {
+                errors++;
+            }
+        }
+        json.append(String.format(Locale.ROOT, "], \"elapsedMillis\": %.1f}", millis));
+        System.out.println(json);
+
+        if (errors > 0) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compiles CSV charts into the binary chart format next to their source, failing on malformed charts.
+ * Usage: ChartCompiler &lt;chart.csv|directory&gt;...
+ */
+public class ChartCompiler {
+    /**
+     * The entry point for the chart compiler.
+     */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Usage: ChartCompiler <chart.csv|directory>...");
+            System.exit(-1);
+        }
+
+        int errors = 0;
+        for (String csvFile : findCharts(args)) {
+            try {
+                CsvChart chart = CsvChart.read(csvFile, true);
+                String binaryFile = ChartFormat.binaryPath(csvFile);
+                BinaryChart.write(chart, binaryFile);
+                System.out.printf("%s -> %s (%d lanes, %d notes)%n",
+                        csvFile, binaryFile, chart.getLaneCount(), chart.getNoteCount());
+            } catch (ChartFormatException | IOException e) {
+                System.err.println("error: " + e.getMessage());
+                errors++;
+            }
+        }
+
+        if (errors > 0) {
+            System.err.println(errors + " chart(s) failed to compile");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Expand directories in the arguments into the CSV charts they contain
+     *
+     * @param args Chart files and directories of charts
+     * @return The chart files, with each directory's charts in name order
+     */
+    public static List<String> findCharts(String[] args) {
+        List<String> charts = new ArrayList<>();
+        for (String arg : args) {
+            File file = new File(arg);
+            File[] children = file.listFiles((dir, name) -> name.endsWith(ChartFormat.CSV_EXTENSION));
+            if (children == null) {
+                charts.add(arg);
+            } else {
+                Arrays.sort(children);
+                for (File child : children) {
+                    charts.add(child.getPath());
+                }
+            }
+        }
+        return charts;
+    }
+}
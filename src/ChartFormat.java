@@ -0,0 +1,38 @@
+/**
+ * Constants shared by the chart readers and writers: note type codes, which {@link NoteKind} maps to
+ * note kinds, and the binary layout.
+ * <p>
+ * A compiled chart is big-endian: the magic number and version, the lane count, each lane's x position
+ * and ASCII type name, the note count, then one fixed-size record per note holding its appearance frame,
+ * lane index and type code, sorted by appearance frame.
+ */
+public class ChartFormat {
+    public static final int NORMAL = 0;
+    public static final int HOLD = 1;
+    public static final int SPEED_UP = 2;
+    public static final int SLOW_DOWN = 3;
+    public static final int BOMB = 4;
+    public static final int DOUBLE_SCORE = 5;
+
+    public static final int MAGIC = 0x53444348; // "SDCH"
+    public static final short VERSION = 1;
+    public static final int NOTE_RECORD_BYTES = 6;
+    public static final String CSV_EXTENSION = ".csv";
+    public static final String BINARY_EXTENSION = ".chart";
+
+    private ChartFormat() {
+    }
+
+    /**
+     * Get the path a CSV chart compiles to
+     *
+     * @param csvFile The path to the CSV chart
+     * @return The path to the compiled chart
+     */
+    public static String binaryPath(String csvFile) {
+        if (csvFile.endsWith(CSV_EXTENSION)) {
+            csvFile = csvFile.substring(0, csvFile.length() - CSV_EXTENSION.length());
+        }
+        return csvFile + BINARY_EXTENSION;
+    }
+}
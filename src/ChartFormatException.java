@@ -0,0 +1,25 @@
+/**
+ * Thrown when a chart file is malformed
+ */
+public class ChartFormatException extends Exception {
+    /**
+     * Constructor for a chart error at a line of a CSV chart
+     *
+     * @param file    The path to the chart
+     * @param line    The line number, starting from 1
+     * @param message The description of the problem
+     */
+    public ChartFormatException(String file, int line, String message) {
+        super(file + ":" + line + ": " + message);
+    }
+
+    /**
+     * Constructor for a chart error that is not tied to a line
+     *
+     * @param file    The path to the chart
+     * @param message The description of the problem
+     */
+    public ChartFormatException(String file, String message) {
+        super(file + ": " + message);
+    }
+}
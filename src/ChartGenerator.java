@@ -0,0 +1,318 @@
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Random;
+
+/**
+ * Generates synthetic charts in the CSV chart format for stress testing, with a chosen number of lanes,
+ * note density, and share of hold, special and bomb notes. Notes are written as they are generated,
+ * so charts of millions of notes take no more memory than small ones.
+ * <p>
+ * Each note goes to a random lane that is free at its frame, so a perfect player plays every note
+ * perfectly: notes never overlap in a lane, are never judged when a hold note before them is pressed
+ * and never set off a bomb. Each note still on screen when a note appears holds it back a frame as it is
+ * judged, so the gap behind a note grows with the notes before it. When every lane is busy, the note waits for the first lane to free up, so
+ * densities beyond what the lanes can hold stretch the chart. Special notes go to a Special lane and cycle
+ * through speed up, double score, slow down and double score, so a player who hits them all never slows
+ * the chart to a stop. With -check, the written chart is played by a perfect player and the generator
+ * exits with an error if any judgment is imperfect.
+ * Usage: ChartGenerator &lt;out.csv&gt; [-notes n] [-lanes 1-4] [-nps notes per second]
+ * [-holds ratio] [-specials ratio] [-bombs ratio] [-seed n] [-check]
+ */
+public class ChartGenerator {
+    private static final LaneDirection[] TAP_LANES = {
+            LaneDirection.LEFT, LaneDirection.UP, LaneDirection.DOWN, LaneDirection.RIGHT};
+    private static final NoteKind[] SPECIAL_CYCLE = {
+            NoteKind.SPEED_UP, NoteKind.DOUBLE_SCORE, NoteKind.SLOW_DOWN, NoteKind.DOUBLE_SCORE};
+    private static final int SPECIAL_LOCATION = 200;
+    private static final int FIRST_LOCATION = 352;
+    private static final int LANE_SPACING = 130;
+    private static final int FIRST_FRAME = 100;
+    private static final int FRAMES_PER_SECOND = 60;
+    private static final int MIN_SPEED = 2;
+    private static final int MAX_SPEED = MIN_SPEED + 1;
+    private static final int GAP_FRAMES = 4;
+    private static final NoteKind[] KINDS = NoteKind.values();
+    private static final int[][] GAPS = getGaps();
+    private static final int[] LIFE_FRAMES = getLifeFrames();
+
+    private static final int DEFAULT_NOTES = 10000;
+    private static final int DEFAULT_LANES = 4;
+    private static final double DEFAULT_NOTES_PER_SECOND = 8;
+    private static final double DEFAULT_HOLD_RATIO = 0.1;
+    private static final double DEFAULT_SPECIAL_RATIO = 0.01;
+    private static final double DEFAULT_BOMB_RATIO = 0.01;
+
+    private final int lanes;
+    private final double notesPerSecond;
+    private final double holdRatio;
+    private final double specialRatio;
+    private final double bombRatio;
+    private final long seed;
+
+    /**
+     * Constructor for a chart generator
+     *
+     * @param lanes          The number of tap lanes, from 1 to 4, not counting the Special lane
+     * @param notesPerSecond The average number of notes per second
+     * @param holdRatio      The share of notes that are hold notes
+     * @param specialRatio   The share of notes that are special notes, which adds a Special lane if above 0
+     * @param bombRatio      The share of notes that are bombs
+     * @param seed           The seed for the random choices, so a chart can be generated again
+     */
+    public ChartGenerator(int lanes, double notesPerSecond, double holdRatio, double specialRatio,
+                          double bombRatio, long seed) {
+        if (lanes < 1 || lanes > TAP_LANES.length) {
+            throw new IllegalArgumentException("lane count must be from 1 to " + TAP_LANES.length);
+        }
+        if (notesPerSecond <= 0) {
+            throw new IllegalArgumentException("note density must be positive");
+        }
+        if (holdRatio < 0 || specialRatio < 0 || bombRatio < 0 || holdRatio + specialRatio + bombRatio > 1) {
+            throw new IllegalArgumentException("note ratios must be non-negative and add up to at most 1");
+        }
+        this.lanes = lanes;
+        this.notesPerSecond = notesPerSecond;
+        this.holdRatio = holdRatio;
+        this.specialRatio = specialRatio;
+        this.bombRatio = bombRatio;
+        this.seed = seed;
+    }
+
+    /**
+     * Write a chart
+     *
+     * @param path      The file path to write the chart to
+     * @param noteCount The number of notes
+     * @return The appearance frame of the last note
+     * @throws IOException If the file cannot be written
+     */
+    public int write(String path, int noteCount) throws IOException {
+        Random random = new Random(seed);
+        LaneState[] laneStates = new LaneState[lanes];
+        for (int i = 0; i < lanes; i++) {
+            laneStates[i] = new LaneState();
+        }
+        LaneState specialState = new LaneState();
+        int specials = 0;
+        int lastFrame = 0;
+
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(path))) {
+            if (specialRatio > 0) {
+                writeLane(writer, LaneDirection.SPECIAL, SPECIAL_LOCATION);
+            }
+            for (int i = 0; i < lanes; i++) {
+                writeLane(writer, TAP_LANES[i], FIRST_LOCATION + i * LANE_SPACING);
+            }
+
+            for (int i = 0; i < noteCount; i++) {
+                int frame = FIRST_FRAME + (int) (i * (double) FRAMES_PER_SECOND / notesPerSecond);
+                double roll = random.nextDouble();
+                if (roll < specialRatio) {
+                    NoteKind kind = SPECIAL_CYCLE[specials++ % SPECIAL_CYCLE.length];
+                    frame = specialState.add(kind, frame);
+                    writeNote(writer, LaneDirection.SPECIAL, kind, frame);
+                    lastFrame = Math.max(lastFrame, frame);
+                    continue;
+                }
+
+                NoteKind kind = NoteKind.NORMAL;
+                if (roll < specialRatio + bombRatio) {
+                    kind = NoteKind.BOMB;
+                } else if (roll < specialRatio + bombRatio + holdRatio) {
+                    kind = NoteKind.HOLD;
+                }
+                int lane = pickLane(random, laneStates, kind, frame);
+                frame = laneStates[lane].add(kind, frame);
+                writeNote(writer, TAP_LANES[lane], kind, frame);
+                lastFrame = Math.max(lastFrame, frame);
+            }
+        }
+        return lastFrame;
+    }
+
+    /**
+     * Get the fewest frames between the appearances of each kind of note and each kind of note after it in
+     * the same lane. The next note has to be pressed after the previous one is finished, which is when the
+     * top of a hold note or the middle of any other note reaches the target, and by {@link #GAP_FRAMES} frames
+     * at the fastest speed, so the key can be released in between. After a hold note, it has to be out of
+     * its judging radius when the hold note is pressed, since the press goes on to judge it. After a bomb,
+     * it has to be out of the bomb's radius when it is pressed, or the press sets the bomb off. Distances
+     * are worked out from where each kind of note appears, and turned into frames at the slowest speed.
+     */
+    private static int[][] getGaps() {
+        int[] firstParts = new int[KINDS.length];
+        int[] lastParts = new int[KINDS.length];
+        for (NoteKind kind : KINDS) {
+            int y = ChartNoteStream.createNote(LaneDirection.LEFT, kind, 0).getY();
+            int offset = (kind == NoteKind.HOLD) ? HoldNote.HEIGHT_OFFSET : 0;
+            firstParts[kind.ordinal()] = y + offset;
+            lastParts[kind.ordinal()] = y - offset;
+        }
+
+        int margin = GAP_FRAMES * MAX_SPEED;
+        int[][] gaps = new int[KINDS.length][KINDS.length];
+        for (NoteKind previous : KINDS) {
+            for (NoteKind next : KINDS) {
+                int first = firstParts[next.ordinal()];
+                int distance = first - lastParts[previous.ordinal()] + margin;
+                if (previous == NoteKind.HOLD) {
+                    int radius = (next.getEffect() == null) ? Accuracy.MISS_RADIUS : Accuracy.GOOD_RADIUS;
+                    distance = Math.max(distance, radius + first - firstParts[previous.ordinal()] + margin);
+                } else if (previous == NoteKind.BOMB) {
+                    distance = Math.max(distance, Accuracy.GOOD_RADIUS + first - firstParts[previous.ordinal()] + margin);
+                }
+                gaps[previous.ordinal()][next.ordinal()] = (distance + MIN_SPEED - 1) / MIN_SPEED;
+            }
+        }
+        return gaps;
+    }
+
+    /**
+     * Get the most frames each kind of note can stay in its lane from its appearance, which is until the
+     * top of a hold note or the middle of any other note reaches the target, or the bottom of the screen
+     * for a bomb, at the slowest speed.
+     */
+    private static int[] getLifeFrames() {
+        int[] lifeFrames = new int[KINDS.length];
+        for (NoteKind kind : KINDS) {
+            int y = ChartNoteStream.createNote(LaneDirection.LEFT, kind, 0).getY();
+            int offset = (kind == NoteKind.HOLD) ? HoldNote.HEIGHT_OFFSET : 0;
+            int end = (kind == NoteKind.BOMB) ? Playfield.HEIGHT : Lane.TARGET_HEIGHT;
+            lifeFrames[kind.ordinal()] = (end - y + offset + MIN_SPEED - 1) / MIN_SPEED;
+        }
+        return lifeFrames;
+    }
+
+    /**
+     * Pick a random lane that is free for a note at a frame, or the lane that frees up first if none is
+     */
+    private int pickLane(Random random, LaneState[] laneStates, NoteKind kind, int frame) {
+        int start = random.nextInt(lanes);
+        int earliest = start;
+        int earliestFrame = Integer.MAX_VALUE;
+        for (int i = 0; i < lanes; i++) {
+            int lane = (start + i) % lanes;
+            int freeFrame = laneStates[lane].getFreeFrame(kind);
+            if (freeFrame <= frame) {
+                return lane;
+            }
+            if (freeFrame < earliestFrame) {
+                earliest = lane;
+                earliestFrame = freeFrame;
+            }
+        }
+        return earliest;
+    }
+
+    private static void writeLane(BufferedWriter writer, LaneDirection direction, int location) throws IOException {
+        writer.write("Lane," + direction.getTypeName() + "," + location);
+        writer.newLine();
+    }
+
+    private static void writeNote(BufferedWriter writer, LaneDirection direction, NoteKind kind, int frame)
+            throws IOException {
+        writer.write(direction.getTypeName());
+        writer.write(',');
+        writer.write(kind.getTypeName());
+        writer.write(',');
+        writer.write(Integer.toString(frame));
+        writer.newLine();
+    }
+
+    /**
+     * The notes written to a lane so far. A lane judges its notes in order and stops at the first one
+     * completed, so every note completed while a note is on screen holds that note back a frame.
+     */
+    private static class LaneState {
+        private final ArrayDeque<Integer> completions = new ArrayDeque<>();
+        private NoteKind kind;
+        private int frame;
+        private int lag;
+
+        /**
+         * Get the first frame a note can appear at in the lane, leaving room for the last note being held back
+         *
+         * @param next The kind of note to add
+         */
+        public int getFreeFrame(NoteKind next) {
+            if (kind == null) {
+                return 0;
+            }
+            return frame + GAPS[kind.ordinal()][next.ordinal()] + (lag * MAX_SPEED + MIN_SPEED - 1) / MIN_SPEED;
+        }
+
+        /**
+         * Add a note to the lane
+         *
+         * @param next     The kind of note to add
+         * @param minFrame The earliest frame the note should appear at
+         * @return The frame the note appears at
+         */
+        public int add(NoteKind next, int minFrame) {
+            int appearance = Math.max(minFrame, getFreeFrame(next));
+            while (!completions.isEmpty() && completions.peekFirst() < appearance) {
+                completions.pollFirst();
+            }
+            kind = next;
+            frame = appearance;
+            lag = completions.size();
+            completions.addLast(appearance + LIFE_FRAMES[next.ordinal()] + lag);
+            return appearance;
+        }
+    }
+
+    /**
+     * The entry point for the chart generator.
+     */
+    public static void main(String[] args) {
+        String path = null;
+        int notes = DEFAULT_NOTES;
+        int lanes = DEFAULT_LANES;
+        double notesPerSecond = DEFAULT_NOTES_PER_SECOND;
+        double holds = DEFAULT_HOLD_RATIO;
+        double specials = DEFAULT_SPECIAL_RATIO;
+        double bombs = DEFAULT_BOMB_RATIO;
+        long seed = 0;
+        boolean check = false;
+        try {
+            CommandLine line = new CommandLine(args,
+                    new String[]{"-notes", "-lanes", "-nps", "-holds", "-specials", "-bombs", "-seed"}, "-check");
+            notes = line.getInt("-notes", notes);
+            lanes = line.getInt("-lanes", lanes);
+            notesPerSecond = line.getDouble("-nps", notesPerSecond);
+            holds = line.getDouble("-holds", holds);
+            specials = line.getDouble("-specials", specials);
+            bombs = line.getDouble("-bombs", bombs);
+            seed = line.getLong("-seed", seed);
+            check = line.has("-check");
+            if (line.getArguments().size() == 1) {
+                path = line.getArguments().get(0);
+            }
+        } catch (IllegalArgumentException e) {
+            path = null;
+        }
+        if (path == null) {
+            System.err.println("Usage: ChartGenerator <out.csv> [-notes n] [-lanes 1-4] [-nps notes per second]"
+                    + " [-holds ratio] [-specials ratio] [-bombs ratio] [-seed n] [-check]");
+            System.exit(-1);
+        }
+
+        try {
+            int lastFrame = new ChartGenerator(lanes, notesPerSecond, holds, specials, bombs, seed).write(path, notes);
+            System.out.printf("%s: %d notes, the last at frame %d%n", path, notes, lastFrame);
+            if (check) {
+                int imperfect = ChartAnalyzer.countImperfectJudgments(path);
+                if (imperfect > 0) {
+                    System.err.printf("error: a perfect play of %s makes %d imperfect judgments%n", path, imperfect);
+                    System.exit(1);
+                }
+                System.out.printf("%s: a perfect play makes no imperfect judgments%n", path);
+            }
+        } catch (IllegalArgumentException | IOException | ChartFormatException e) {
+            System.err.println("error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
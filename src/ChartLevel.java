@@ -0,0 +1,73 @@
+import java.io.IOException;
+
+/**
+ * A level built from an arbitrary chart file, used by tools that run charts outside the three built-in levels
+ */
+public class ChartLevel extends Levels {
+    /**
+     * Constructor for a silent level with no clear score
+     *
+     * @param csvFile The file path to the chart
+     * @throws IOException          If the chart cannot be read
+     * @throws ChartFormatException If the chart is not valid
+     */
+    public ChartLevel(String csvFile) throws IOException, ChartFormatException {
+        this(csvFile, null, 0);
+    }
+
+    /**
+     * Constructor for a level from a chart
+     *
+     * @param csvFile    The file path to the chart
+     * @param trackFile  The file path to the music, or null if the level has none
+     * @param clearScore The score required to clear the level
+     * @throws IOException          If the chart cannot be read
+     * @throws ChartFormatException If the chart is not valid
+     */
+    public ChartLevel(String csvFile, String trackFile, int clearScore) throws IOException, ChartFormatException {
+        super(clearScore, trackFile);
+        readChart(csvFile);
+    }
+
+    /**
+     * Constructor for a silent level from a chart that has already been read
+     *
+     * @param chart      The chart
+     * @param clearScore The score required to clear the level
+     * @throws ChartFormatException If a note refers to a lane or note type that does not exist
+     */
+    public ChartLevel(ChartSource chart, int clearScore) throws ChartFormatException {
+        super(clearScore, null);
+        addChart(chart);
+    }
+
+    /**
+     * Constructor for a silent level that streams its notes from the chart
+     *
+     * @param csvFile         The file path to the chart
+     * @param lookAheadFrames How many frames before its appearance a note is created
+     * @throws IOException          If the chart cannot be read
+     * @throws ChartFormatException If the chart is not valid
+     */
+    public ChartLevel(String csvFile, int lookAheadFrames) throws IOException, ChartFormatException {
+        super(0, null);
+        streamChart(csvFile, lookAheadFrames);
+    }
+
+    /**
+     * Constructor for a silent level whose lanes may pack their notes into arrays
+     *
+     * @param csvFile The file path to the chart
+     * @param packed  True to hold the notes in {@link PackedLane}s rather than as note objects
+     * @throws IOException          If the chart cannot be read
+     * @throws ChartFormatException If the chart is not valid
+     */
+    public ChartLevel(String csvFile, boolean packed) throws IOException, ChartFormatException {
+        super(0, null);
+        if (packed) {
+            packChart(csvFile);
+        } else {
+            readChart(csvFile);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/**
+ * Cursor over one lane's notes in a chart, creating each note only when the lane asks for it
+ * so a streamed level never holds the notes of the whole chart
+ */
+public class ChartNoteStream {
+    private final ChartSource chart;
+    private final int lane;
+    private final LaneDirection direction;
+    private int next;
+
+    /**
+     * Constructor for a stream of one lane's notes
+     *
+     * @param chart     The chart to read, with notes sorted by appearance frame
+     * @param lane      The index of the lane in the chart
+     * @param direction The type of the lane
+     */
+    public ChartNoteStream(ChartSource chart, int lane, LaneDirection direction) {
+        this.chart = chart;
+        this.lane = lane;
+        this.direction = direction;
+        seek(0);
+    }
+
+    /**
+     * Move to the first note at or after a record that belongs to this lane and has a known type
+     */
+    private void seek(int from) {
+        next = from;
+        while (next < chart.getNoteCount()
+                && (chart.getNoteLane(next) != lane || NoteKind.fromCode(chart.getNoteType(next)) == null)) {
+            next++;
+        }
+    }
+
+    /**
+     * Check if the lane has notes left in the chart
+     *
+     * @return True if there is another note
+     */
+    public boolean hasNext() {
+        return next < chart.getNoteCount();
+    }
+
+    /**
+     * Get the appearance frame of the next note without creating it
+     *
+     * @return The appearance frame
+     */
+    public int peekFrame() {
+        return chart.getNoteFrame(next);
+    }
+
+    /**
+     * Create the next note and move past it
+     *
+     * @return The note
+     */
+    public Note next() {
+        Note note = createNote(direction, NoteKind.fromCode(chart.getNoteType(next)), chart.getNoteFrame(next));
+        seek(next + 1);
+        return note;
+    }
+
+    /**
+     * Create a note from its chart record
+     *
+     * @param direction The lane the note falls down
+     * @param kind      The kind of note
+     * @param frame     The appearance frame
+     * @return The note
+     */
+    public static Note createNote(LaneDirection direction, NoteKind kind, int frame) {
+        switch (kind) {
+            case NORMAL:
+                return new NormalNote(direction, frame);
+            case HOLD:
+                return new HoldNote(direction, frame);
+            default:
+                // SpeedUp, SlowDown, Bomb, DoubleScore
+                return new SpecialNote(kind, frame);
+        }
+    }
+}
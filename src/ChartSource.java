@@ -0,0 +1,58 @@
+/**
+ * Read-only view of a chart: its lane table and its note records sorted by appearance frame
+ */
+public interface ChartSource {
+    /**
+     * Get the number of lanes declared by the chart
+     *
+     * @return The lane count
+     */
+    int getLaneCount();
+
+    /**
+     * Get the type of a lane, such as "Left" or "Special"
+     *
+     * @param lane The index of the lane
+     * @return The lane type
+     */
+    String getLaneType(int lane);
+
+    /**
+     * Get the horizontal location of a lane
+     *
+     * @param lane The index of the lane
+     * @return The x position of the lane
+     */
+    int getLaneLocation(int lane);
+
+    /**
+     * Get the number of notes in the chart
+     *
+     * @return The note count
+     */
+    int getNoteCount();
+
+    /**
+     * Get the frame at which a note appears
+     *
+     * @param note The index of the note
+     * @return The appearance frame
+     */
+    int getNoteFrame(int note);
+
+    /**
+     * Get the lane a note belongs to
+     *
+     * @param note The index of the note
+     * @return The index of the lane
+     */
+    int getNoteLane(int note);
+
+    /**
+     * Get the type of a note as one of the {@link ChartFormat} note codes
+     *
+     * @param note The index of the note
+     * @return The note type code
+     */
+    int getNoteType(int note);
+}
@@ -0,0 +1,118 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The arguments given to one of the command-line tools: options that take the value after them, flags
+ * that are either given or not, and the other arguments in order. An unknown option, an option without
+ * its value and a value that is not a number where one is expected are all illegal arguments, so a tool
+ * can catch {@link IllegalArgumentException} and print its usage.
+ */
+public class CommandLine {
+    private static final String OPTION_PREFIX = "-";
+
+    private final Map<String, String> values = new HashMap<>();
+    private final Set<String> flags = new HashSet<>();
+    private final List<String> arguments = new ArrayList<>();
+
+    /**
+     * Constructor for parsing a tool's arguments
+     *
+     * @param args    The arguments given to the tool
+     * @param options The options that take a value, such as "-seed"
+     * @param flags   The options that take no value, such as "-packed"
+     * @throws IllegalArgumentException If an option is unknown or has no value after it
+     */
+    public CommandLine(String[] args, String[] options, String... flags) {
+        List<String> valueOptions = Arrays.asList(options);
+        List<String> flagOptions = Arrays.asList(flags);
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (valueOptions.contains(arg)) {
+                if (i + 1 == args.length) {
+                    throw new IllegalArgumentException(arg + " needs a value");
+                }
+                values.put(arg, args[++i]);
+            } else if (flagOptions.contains(arg)) {
+                this.flags.add(arg);
+            } else if (arg.startsWith(OPTION_PREFIX) && arg.length() > OPTION_PREFIX.length()) {
+                throw new IllegalArgumentException("unknown option " + arg);
+            } else {
+                arguments.add(arg);
+            }
+        }
+    }
+
+    /**
+     * Check if a flag was given
+     *
+     * @param flag The flag, such as "-packed"
+     * @return True if the flag was given
+     */
+    public boolean has(String flag) {
+        return flags.contains(flag);
+    }
+
+    /**
+     * Get the value of an option
+     *
+     * @param option       The option, such as "-csv"
+     * @param defaultValue The value if the option was not given
+     * @return The option's value
+     */
+    public String get(String option, String defaultValue) {
+        return values.getOrDefault(option, defaultValue);
+    }
+
+    /**
+     * Get the value of an option as an int
+     *
+     * @param option       The option, such as "-runs"
+     * @param defaultValue The value if the option was not given
+     * @return The option's value
+     * @throws NumberFormatException If the value is not an int
+     */
+    public int getInt(String option, int defaultValue) {
+        String value = values.get(option);
+        return (value == null) ? defaultValue : Integer.parseInt(value);
+    }
+
+    /**
+     * Get the value of an option as a long
+     *
+     * @param option       The option, such as "-seed"
+     * @param defaultValue The value if the option was not given
+     * @return The option's value
+     * @throws NumberFormatException If the value is not a long
+     */
+    public long getLong(String option, long defaultValue) {
+        String value = values.get(option);
+        return (value == null) ? defaultValue : Long.parseLong(value);
+    }
+
+    /**
+     * Get the value of an option as a double
+     *
+     * @param option       The option, such as "-nps"
+     * @param defaultValue The value if the option was not given
+     * @return The option's value
+     * @throws NumberFormatException If the value is not a number
+     */
+    public double getDouble(String option, double defaultValue) {
+        String value = values.get(option);
+        return (value == null) ? defaultValue : Double.parseDouble(value);
+    }
+
+    /**
+     * Get the arguments that are not options, in the order they were given
+     *
+     * @return The other arguments
+     */
+    public List<String> getArguments() {
+        return arguments;
+    }
+}
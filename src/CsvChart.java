@@ -0,0 +1,203 @@
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A chart parsed from the CSV format, where lines are either "Lane,&lt;type&gt;,&lt;x&gt;" or
+ * "&lt;lane type&gt;,&lt;note type&gt;,&lt;frame&gt;".
+ * <p>
+ * In lenient mode, lanes of unknown types, notes for lanes that are not declared yet and notes of
+ * unknown types are dropped with a warning, which is how the game has always read notes. Strict mode
+ * rejects them, along with duplicate lane types, so broken charts fail when they are compiled.
+ */
+public class CsvChart implements ChartSource {
+    private static final int INITIAL_NOTES = 64;
+
+    private final List<String> laneTypes = new ArrayList<>();
+    private final int[] laneByDirection = new int[LaneDirection.values().length];
+    private final List<Integer> laneLocations = new ArrayList<>();
+    private final List<String> warnings = new ArrayList<>();
+    private int[] frames = new int[INITIAL_NOTES];
+    private int[] noteLanes = new int[INITIAL_NOTES];
+    private int[] noteTypes = new int[INITIAL_NOTES];
+    private int noteCount = 0;
+
+    private CsvChart() {
+        Arrays.fill(laneByDirection, -1);
+    }
+
+    /**
+     * Parse a CSV chart
+     *
+     * @param path   The file path to the chart
+     * @param strict Whether to reject notes and lanes the game would ignore
+     * @return The parsed chart, with notes sorted by appearance frame
+     * @throws IOException          If the file cannot be read
+     * @throws ChartFormatException If a line is malformed
+     */
+    public static CsvChart read(String path, boolean strict) throws IOException, ChartFormatException {
+        CsvChart chart = new CsvChart();
+        try (BufferedReader br = new BufferedReader(new FileReader(path))) {
+            String textRead;
+            int line = 0;
+            while ((textRead = br.readLine()) != null) {
+                line++;
+                if (textRead.isEmpty()) {
+                    continue;
+                }
+                chart.parseLine(path, line, textRead.split(","), strict);
+            }
+        }
+        chart.sortByFrame();
+        return chart;
+    }
+
+    private void parseLine(String path, int line, String[] splitText, boolean strict) throws ChartFormatException {
+        if (splitText[0].equals("Lane")) {
+            // reading lanes
+            if (splitText.length != 3) {
+                throw new ChartFormatException(path, line, "expected Lane,<type>,<x>");
+            }
+            String laneType = splitText[1];
+            LaneDirection direction = LaneDirection.fromTypeName(laneType);
+            if (direction == null) {
+                reject(path, line, "unknown lane type " + laneType, strict);
+                return;
+            }
+            if (laneByDirection[direction.ordinal()] >= 0) {
+                if (strict) {
+                    throw new ChartFormatException(path, line, "lane " + laneType + " is declared twice");
+                }
+            } else {
+                // notes go to the first lane declared with their type
+                laneByDirection[direction.ordinal()] = laneTypes.size();
+            }
+            laneTypes.add(laneType);
+            laneLocations.add(parseInt(path, line, splitText[2], "lane position"));
+            return;
+        }
+
+        // reading notes
+        String dir = splitText[0];
+        LaneDirection direction = LaneDirection.fromTypeName(dir);
+        int lane = (direction != null) ? laneByDirection[direction.ordinal()] : -1;
+        if (lane < 0) {
+            reject(path, line, "note for undeclared lane " + dir, strict);
+            return;
+        }
+        if (splitText.length < 3 || (strict && splitText.length != 3)) {
+            throw new ChartFormatException(path, line, "expected <lane>,<note type>,<frame>");
+        }
+        NoteKind kind = NoteKind.fromTypeName(splitText[1]);
+        if (kind == null) {
+            reject(path, line, "unknown note type " + splitText[1], strict);
+            return;
+        }
+        int frame = parseInt(path, line, splitText[2], "appearance frame");
+        if (strict && frame < 0) {
+            throw new ChartFormatException(path, line, "negative appearance frame " + frame);
+        }
+        addNote(frame, lane, kind.getCode());
+    }
+
+    /**
+     * Either fail on a line or record a warning that it was dropped
+     */
+    private void reject(String path, int line, String message, boolean strict) throws ChartFormatException {
+        if (strict) {
+            throw new ChartFormatException(path, line, message);
+        }
+        warnings.add(path + ":" + line + ": " + message + ", dropped");
+    }
+
+    private static int parseInt(String path, int line, String text, String field) throws ChartFormatException {
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            throw new ChartFormatException(path, line, "invalid " + field + " " + text);
+        }
+    }
+
+    private void addNote(int frame, int lane, int type) {
+        if (noteCount == frames.length) {
+            frames = Arrays.copyOf(frames, noteCount * 2);
+            noteLanes = Arrays.copyOf(noteLanes, noteCount * 2);
+            noteTypes = Arrays.copyOf(noteTypes, noteCount * 2);
+        }
+        frames[noteCount] = frame;
+        noteLanes[noteCount] = lane;
+        noteTypes[noteCount] = type;
+        noteCount++;
+    }
+
+    /**
+     * Stable sort of the notes by appearance frame, keeping chart order for notes on the same frame
+     */
+    private void sortByFrame() {
+        long[] keys = new long[noteCount];
+        for (int i = 0; i < noteCount; i++) {
+            keys[i] = ((long) frames[i] << 32) | i;
+        }
+        Arrays.sort(keys);
+
+        int[] sortedFrames = new int[noteCount];
+        int[] sortedLanes = new int[noteCount];
+        int[] sortedTypes = new int[noteCount];
+        for (int i = 0; i < noteCount; i++) {
+            int from = (int) keys[i];
+            sortedFrames[i] = frames[from];
+            sortedLanes[i] = noteLanes[from];
+            sortedTypes[i] = noteTypes[from];
+        }
+        frames = sortedFrames;
+        noteLanes = sortedLanes;
+        noteTypes = sortedTypes;
+    }
+
+    /**
+     * Get the lines that were dropped while reading in lenient mode
+     *
+     * @return The warnings
+     */
+    public List<String> getWarnings() {
+        return warnings;
+    }
+
+    @Override
+    public int getLaneCount() {
+        return laneTypes.size();
+    }
+
+    @Override
+    public String getLaneType(int lane) {
+        return laneTypes.get(lane);
+    }
+
+    @Override
+    public int getLaneLocation(int lane) {
+        return laneLocations.get(lane);
+    }
+
+    @Override
+    public int getNoteCount() {
+        return noteCount;
+    }
+
+    @Override
+    public int getNoteFrame(int note) {
+        return frames[note];
+    }
+
+    @Override
+    public int getNoteLane(int note) {
+        return noteLanes[note];
+    }
+
+    @Override
+    public int getNoteType(int note) {
+        return noteTypes[note];
+    }
+}
@@ -1,93 +1,121 @@
-import bagel.Image;
-import bagel.util.Vector2;
-
-import java.util.List;
 import java.util.Random;
 
 /**
  * Class for managing the behavior of enemy entities in the game
  */
-public class Enemy {
+public class Enemy implements Entity {
     private final static int X_UPPER_BOUND = 900;
     private final static int X_LOWER_BOUND = 100;
     private final static int Y_UPPER_BOUND = 500;
     private final static int Y_LOWER_BOUND = 100;
     private final static int DEFAULT_SPEED = 1;
     private final static int COLLISION_RADIUS = 104;
-    private final Image ENEMY_IMAGE = new Image("res/enemy.png");
-    private final double speed;
-    private Vector2 position;
+    public final static String IMAGE_FILE = "res/enemy.png";
+    private final double speed = DEFAULT_SPEED;
+    private double x;
+    private double y;
+    private double previousX;
+    private double previousY;
     private boolean isMovingRight;
-    private boolean isActive = true;
+    private boolean isActive = false;
 
     /**
-     * Constructor for creating an enemy with a random initial position and moving direction
+     * Constructor for creating an inactive enemy, to be spawned later with {@link #reset(Random)}
      */
     public Enemy() {
-        Random rand = new Random();
+    }
+
+    /**
+     * Constructor for creating an enemy with a random initial position and moving direction
+     *
+     * @param rand The source of randomness for the spawn
+     */
+    public Enemy(Random rand) {
+        reset(rand);
+    }
 
-        // Set initial position using Vector2 within specified ranges
-        double initialX = rand.nextDouble() * (X_UPPER_BOUND - X_LOWER_BOUND) + X_LOWER_BOUND;
-        double initialY = rand.nextDouble() * (Y_UPPER_BOUND - Y_LOWER_BOUND) + Y_LOWER_BOUND;
-        position = new Vector2(initialX, initialY);
+    /**
+     * Respawn the enemy at a random position and moving direction, so a pooled enemy can be reused
+     *
+     * @param rand The source of randomness for the spawn
+     */
+    public void reset(Random rand) {
+        // Set initial position within specified ranges
+        x = rand.nextDouble() * (X_UPPER_BOUND - X_LOWER_BOUND) + X_LOWER_BOUND;
+        y = rand.nextDouble() * (Y_UPPER_BOUND - Y_LOWER_BOUND) + Y_LOWER_BOUND;
+        previousX = x;
+        previousY = y;
 
-        // Set speed and initial direction (randomly)
-        speed = DEFAULT_SPEED;
+        // Set initial direction (randomly)
         isMovingRight = rand.nextBoolean();
+        isActive = true;
     }
 
     /**
      * Update the enemy's position and check for collisions with notes
      *
-     * @param lanes list of lanes of notes
+     * @param noteIndex index of the notes that can be stolen this frame
      */
-    public void update(List<Lane> lanes) {
+    public void update(NoteCollisionIndex noteIndex) {
         if (isActive) {
-            ENEMY_IMAGE.draw(position.x, position.y);
+            previousX = x;
+            previousY = y;
             // Enemy movement logic
             if (isMovingRight) {
-                position = position.add(new Vector2(speed, 0));
-                if (position.x >= X_UPPER_BOUND) {
+                x += speed;
+                if (x >= X_UPPER_BOUND) {
                     // Change direction when reaching 900
                     isMovingRight = false;
                 }
             } else {
-                position = position.add(new Vector2(-speed, 0));
-                if (position.x <= X_LOWER_BOUND) {
+                x -= speed;
+                if (x <= X_LOWER_BOUND) {
                     // Change direction when reaching 100
                     isMovingRight = true;
                 }
             }
-            checkCollision(lanes);
+            checkCollision(noteIndex);
         }
     }
 
     /**
-     * Check for collisions between the enemy and game notes in the lanes
+     * Check for collisions between the enemy and the stealable notes near it
      *
-     * @param lanes list of lanes of notes
+     * @param noteIndex index of the notes that can be stolen this frame
      */
-    public void checkCollision(List<Lane> lanes) {
-        for (Lane lane : lanes) {
-            for (Note note : lane.getNotes()) {
-                // Make sure note of type NormalNote and is active
-                if (note.isActive() && note instanceof NormalNote && !(note instanceof SpecialNote)) {
-                    if (Accuracy.detectCollision(new Vector2(lane.getLocation(), note.getY())
-                            , position, COLLISION_RADIUS)) {
-                        note.setStolen(true);
-                    }
-                }
-            }
-        }
+    public void checkCollision(NoteCollisionIndex noteIndex) {
+        noteIndex.stealNotes(x, y, COLLISION_RADIUS);
     }
 
     /**
-     * Get the current position of the enemy
+     * Get the horizontal position of the enemy
      *
-     * @return Vector2 representing the enemy's position
+     * @return The x coordinate
      */
-    public Vector2 getPosition() {
-        return position;
+    public double getX() {
+        return x;
+    }
+
+    /**
+     * Get the vertical position of the enemy
+     *
+     * @return The y coordinate
+     */
+    public double getY() {
+        return y;
+    }
+
+    /**
+     * Draw the enemy if it is active
+     *
+     * @param renderer The renderer to draw with
+     * @param alpha    How far rendering is between the last two simulation steps
+     */
+    public void draw(Renderer renderer, double alpha) {
+        if (isActive) {
+            renderer.drawImage(IMAGE_FILE,
+                    Playfield.interpolate(previousX, x, alpha), Playfield.interpolate(previousY, y, alpha));
+        }
     }
 
     /**
@@ -95,6 +123,7 @@ public class Enemy {
      *
      * @return True if the enemy is active
      */
+    @Override
     public boolean isActive() {
         return isActive;
     }
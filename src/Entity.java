@@ -0,0 +1,11 @@
+/**
+ * A game object that stays in its level until it becomes inactive
+ */
+public interface Entity {
+    /**
+     * Check if the entity is still active
+     *
+     * @return True if the entity is active
+     */
+    boolean isActive();
+}
@@ -0,0 +1,109 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Holds the live entities of one kind. Inactive entities are swap-removed into a pool
+ * and handed out again instead of allocating new ones.
+ *
+ * @param <T> The type of entity
+ */
+public class EntityManager<T extends Entity> {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Supplier<T> factory;
+    private final ArrayList<T> live = new ArrayList<>(INITIAL_CAPACITY);
+    private final ArrayList<T> pool = new ArrayList<>(INITIAL_CAPACITY);
+    private final List<T> liveView = Collections.unmodifiableList(live);
+
+    /**
+     * Constructor for an entity manager
+     *
+     * @param factory Creates a new entity when the pool is empty
+     */
+    public EntityManager(Supplier<T> factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Fill the pool so that the first spawns of a level do not allocate
+     *
+     * @param count The number of entities to create up front
+     */
+    public void reserve(int count) {
+        live.ensureCapacity(count);
+        pool.ensureCapacity(count);
+        while (pool.size() < count) {
+            pool.add(factory.get());
+        }
+    }
+
+    /**
+     * Add an entity to the live list, reusing a pooled one if possible.
+     * The caller is responsible for resetting its state.
+     *
+     * @return The spawned entity
+     */
+    public T spawn() {
+        T entity = pool.isEmpty() ? factory.get() : pool.remove(pool.size() - 1);
+        live.add(entity);
+        return entity;
+    }
+
+    /**
+     * Move every inactive entity from the live list into the pool.
+     * Removal swaps in the last live entity, so the live order is not preserved.
+     */
+    public void compact() {
+        int i = 0;
+        while (i < live.size()) {
+            T entity = live.get(i);
+            if (entity.isActive()) {
+                i++;
+            } else {
+                int last = live.size() - 1;
+                live.set(i, live.get(last));
+                live.remove(last);
+                pool.add(entity);
+            }
+        }
+    }
+
+    /**
+     * Get a live entity by index
+     *
+     * @param index The index of the entity
+     * @return The entity
+     */
+    public T get(int index) {
+        return live.get(index);
+    }
+
+    /**
+     * Get a read-only view of the live entities
+     *
+     * @return The live entities
+     */
+    public List<T> getLive() {
+        return liveView;
+    }
+
+    /**
+     * Get the number of live entities
+     *
+     * @return The live count
+     */
+    public int getLiveCount() {
+        return live.size();
+    }
+
+    /**
+     * Get the number of entities waiting in the pool
+     *
+     * @return The pooled count
+     */
+    public int getPooledCount() {
+        return pool.size();
+    }
+}
@@ -0,0 +1,179 @@
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Regression check for reading a {@link GameEventStream} on another thread while it is published to. The
+ * producer publishes events whose type, frame, lane and judgment or effect all follow from their sequence
+ * number, so the reader can tell a torn or reordered event from a real one, and the reader waits a little
+ * after every event so the producer is always the faster. The stream is checked twice: once with the
+ * producer held to within {@link GameEventStream#CAPACITY} events of the reader, where every event must be
+ * read in order with none missed, and once with the producer never waiting, where every event read must
+ * still be whole and in order, and the events read and missed must add up to the events published. The
+ * build runs the check in its verify phase.
+ * Usage: EventStreamCheck [events]
+ */
+public class EventStreamCheck {
+    private static final int DEFAULT_EVENTS = 1_000_000;
+    private static final long READ_DELAY_NANOS = 200;
+    private static final GameEventType[] TYPES = GameEventType.values();
+    private static final LaneDirection[] DIRECTIONS = LaneDirection.values();
+    private static final Judgment[] JUDGMENTS = Judgment.values();
+    private static final SpecialEffect[] EFFECTS = SpecialEffect.values();
+
+    /**
+     * A reader of the stream that checks every event it reads, on its own thread
+     */
+    private static class Reader implements Runnable {
+        private final GameEventStream.Subscription subscription;
+        private final AtomicLong read = new AtomicLong();
+        private volatile boolean producerDone = false;
+        private long lastFrame = -1;
+        private long gaps = 0;
+        private String error = null;
+
+        private Reader(GameEventStream events) {
+            subscription = events.subscribe();
+        }
+
+        @Override
+        public void run() {
+            while (error == null) {
+                boolean done = producerDone;
+                if (subscription.poll()) {
+                    check();
+                    read.lazySet(read.get() + 1);
+                    long until = System.nanoTime() + READ_DELAY_NANOS;
+                    while (System.nanoTime() < until) {
+                        Thread.onSpinWait();
+                    }
+                } else if (done) {
+                    // the producer had finished before this poll found nothing, so every event was seen
+                    return;
+                } else {
+                    Thread.yield();
+                }
+            }
+        }
+
+        /**
+         * Check that the event just read is the one its frame says it is, and comes after the last one
+         */
+        private void check() {
+            int frame = subscription.getFrame();
+            if (frame <= lastFrame) {
+                error = String.format("event of frame %d read after frame %d", frame, lastFrame);
+                return;
+            }
+            gaps += frame - lastFrame - 1;
+            lastFrame = frame;
+
+            GameEventType type = getType(frame);
+            LaneDirection lane = (type == GameEventType.ENEMY_KILLED) ? null : getLane(frame);
+            boolean judged = type == GameEventType.NOTE_JUDGED;
+            int score = judged ? getJudgment(frame).getScore() : 0;
+            if (subscription.getType() != type || subscription.getLane() != lane || subscription.getScore() != score
+                    || (judged && subscription.getJudgment() != getJudgment(frame))
+                    || (type == GameEventType.EFFECT_APPLIED && subscription.getEffect() != getEffect(frame))) {
+                error = String.format("event of frame %d read as %s in lane %s scoring %d", frame,
+                        subscription.getType(), subscription.getLane(), subscription.getScore());
+            }
+        }
+    }
+
+    private static GameEventType getType(long sequence) {
+        return TYPES[(int) (sequence % TYPES.length)];
+    }
+
+    private static LaneDirection getLane(long sequence) {
+        return DIRECTIONS[(int) (sequence % DIRECTIONS.length)];
+    }
+
+    private static Judgment getJudgment(long sequence) {
+        return JUDGMENTS[(int) (sequence / TYPES.length % JUDGMENTS.length)];
+    }
+
+    private static SpecialEffect getEffect(long sequence) {
+        return EFFECTS[(int) (sequence / TYPES.length % EFFECTS.length)];
+    }
+
+    /**
+     * Publish the event that follows from a sequence number, with the sequence number as its frame
+     */
+    private static void publish(GameEventStream events, int sequence) {
+        events.setFrame(sequence);
+        switch (getType(sequence)) {
+            case NOTE_JUDGED:
+                events.noteJudged(getLane(sequence), getJudgment(sequence));
+                break;
+            case EFFECT_APPLIED:
+                events.effectApplied(getLane(sequence), getEffect(sequence));
+                break;
+            case NOTE_STOLEN:
+                events.noteStolen(getLane(sequence));
+                break;
+            case ENEMY_KILLED:
+                events.enemyKilled();
+                break;
+        }
+    }
+
+    /**
+     * Publish events to a new stream while a reader on another thread checks them
+     *
+     * @param events    The number of events to publish
+     * @param throttled True to keep the producer from lapping the reader
+     * @return True if the reader saw what it should have
+     */
+    private static boolean check(int events, boolean throttled) throws InterruptedException {
+        GameEventStream stream = new GameEventStream();
+        Reader reader = new Reader(stream);
+        Thread thread = new Thread(reader, "event-reader");
+        thread.start();
+
+        long waits = 0;
+        for (int i = 0; i < events; i++) {
+            if (throttled && i - reader.read.get() >= GameEventStream.CAPACITY) {
+                waits++;
+                while (i - reader.read.get() >= GameEventStream.CAPACITY && thread.isAlive()) {
+                    Thread.yield();
+                }
+            }
+            publish(stream, i);
+        }
+        reader.producerDone = true;
+        thread.join();
+
+        long read = reader.read.get();
+        long missed = reader.subscription.getMissedCount();
+        System.out.printf("%s producer: %d events published, %d read, %d missed, producer waited %d times%n",
+                throttled ? "Throttled" : "Unthrottled", events, read, missed, waits);
+        String error = reader.error;
+        if (error == null && read + missed != events) {
+            error = "events read and missed do not add up to the events published";
+        } else if (error == null && reader.gaps != missed) {
+            error = String.format("%d events skipped but %d counted as missed", reader.gaps, missed);
+        } else if (error == null && throttled && missed > 0) {
+            error = "events were missed though the producer never lapped the reader";
+        } else if (error == null && (throttled ? waits : missed) == 0) {
+            error = "the producer never got ahead of the reader";
+        }
+        if (error != null) {
+            System.out.println("  " + error);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * The entry point for the event stream check.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int events = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_EVENTS;
+        boolean passed = check(events, true);
+        passed &= check(events, false);
+        if (!passed) {
+            System.out.println("FAILED: a subscriber on another thread did not read the stream correctly");
+            System.exit(1);
+        }
+        System.out.println("PASSED");
+    }
+}
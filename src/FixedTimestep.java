@@ -0,0 +1,58 @@
+/**
+ * Accumulator that turns elapsed time into whole simulation steps of a fixed length.
+ * Every rule is written per step at 60 steps a second, so the game plays at the same speed
+ * whatever rate the display refreshes at. The leftover fraction of a step is used to
+ * interpolate drawing between the last two steps.
+ */
+public class FixedTimestep {
+    private final int maxSteps;
+    private double accumulator = 0;
+
+    /**
+     * Constructor for a timestep accumulator
+     *
+     * @param maxSteps The most steps to run in one rendered frame. Any time beyond that stays
+     *                 in the accumulator and is caught up over the following frames.
+     */
+    public FixedTimestep(int maxSteps) {
+        this.maxSteps = maxSteps;
+    }
+
+    /**
+     * Add elapsed time to the accumulator
+     *
+     * @param steps The elapsed time, in steps
+     */
+    public void accumulate(double steps) {
+        accumulator += steps;
+    }
+
+    /**
+     * Take the whole steps to run this frame out of the accumulator
+     *
+     * @return The number of steps to run
+     */
+    public int takeSteps() {
+        int steps = (int) Math.min(Math.floor(accumulator), maxSteps);
+        if (steps > 0) {
+            accumulator -= steps;
+        }
+        return Math.max(steps, 0);
+    }
+
+    /**
+     * Get how far the current time is between the last step and the next one
+     *
+     * @return The interpolation factor, from 0 to 1
+     */
+    public double getAlpha() {
+        return Math.max(0, Math.min(accumulator, 1));
+    }
+
+    /**
+     * Discard accumulated time, called when a level starts
+     */
+    public void reset() {
+        accumulator = 0;
+    }
+}
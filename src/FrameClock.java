@@ -0,0 +1,11 @@
+/**
+ * Source of the current chart frame for the simulation
+ */
+public interface FrameClock {
+    /**
+     * Get the current frame number
+     *
+     * @return The current frame number
+     */
+    int getCurrFrame();
+}
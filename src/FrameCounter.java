@@ -0,0 +1,25 @@
+/**
+ * Frame clock that advances by one frame per simulation step
+ */
+public class FrameCounter implements FrameClock {
+    private int currFrame = 0;
+
+    /**
+     * Advance the clock by one frame
+     */
+    public void advance() {
+        currFrame++;
+    }
+
+    /**
+     * Reset the clock to the start of the chart
+     */
+    public void reset() {
+        currFrame = 0;
+    }
+
+    @Override
+    public int getCurrFrame() {
+        return currFrame;
+    }
+}
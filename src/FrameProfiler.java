@@ -0,0 +1,235 @@
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Measures frame times and the time spent in each part of the game loop, for the F3 overlay.
+ * Timings go into preallocated ring buffers holding the last {@link #HISTORY} frames, so measuring
+ * never allocates. The overlay text is rebuilt only every {@link #REFRESH_FRAMES} frames.
+ * When the profiler is off, each probe is a single branch. The overlay also shows the image cache's
+ * hits, misses and resident textures.
+ */
+public class FrameProfiler {
+    public static final int LANE_UPDATE = 0;
+    public static final int PROJECTILE_UPDATE = 1;
+    public static final int ENEMY_UPDATE = 2;
+    public static final int LANE_DRAW = 3;
+    public static final int ENTITY_DRAW = 4;
+    public static final int HUD = 5;
+    public static final int BACKGROUND = 6;
+    private static final String[] SECTION_NAMES = {
+            "lane update", "projectiles", "enemies", "lane draw", "entity draw", "hud", "background"
+    };
+    private static final int SECTIONS = SECTION_NAMES.length;
+    private static final int HISTORY = 256;
+    private static final int MASK = HISTORY - 1;
+    private static final int REFRESH_FRAMES = 30;
+    private static final double NANOS_PER_MILLI = 1e6;
+    private static final double BYTES_PER_MEGABYTE = 1024.0 * 1024.0;
+    private static final double P50 = 0.50;
+    private static final double P99 = 0.99;
+
+    private static final long[] starts = new long[SECTIONS];
+    private static final long[] current = new long[SECTIONS];
+    private static final long[][] sectionHistory = new long[SECTIONS][HISTORY];
+    private static final long[] frameHistory = new long[HISTORY];
+    private static final long[] workHistory = new long[HISTORY];
+    private static final long[] scratch = new long[HISTORY];
+    private static final GarbageCollectorMXBean[] collectors = loadCollectors();
+    private static final String[] lines = new String[SECTIONS + 4];
+
+    private static boolean enabled = false;
+    private static int frames = 0;
+    private static long frameStart = 0;
+    private static long frameInterval = 0;
+    private static long songCollections = 0;
+    private static long songCollectionMillis = 0;
+
+    private FrameProfiler() {
+    }
+
+    private static GarbageCollectorMXBean[] loadCollectors() {
+        List<GarbageCollectorMXBean> beans = ManagementFactory.getGarbageCollectorMXBeans();
+        return beans.toArray(new GarbageCollectorMXBean[0]);
+    }
+
+    /**
+     * Turn measuring on or off, starting with empty history
+     *
+     * @param on True to measure
+     */
+    public static void setEnabled(boolean on) {
+        enabled = on;
+        frames = 0;
+        frameStart = 0;
+        frameInterval = 0;
+        for (int i = 0; i < SECTIONS; i++) {
+            current[i] = 0;
+        }
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = null;
+        }
+    }
+
+    /**
+     * Check if the profiler is measuring
+     *
+     * @return True if the overlay is on
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Start timing a section. Sections may run several times a frame and their times add up.
+     *
+     * @param section The section constant
+     */
+    public static void begin(int section) {
+        if (enabled) {
+            starts[section] = System.nanoTime();
+        }
+    }
+
+    /**
+     * Stop timing a section
+     *
+     * @param section The section constant
+     */
+    public static void end(int section) {
+        if (enabled) {
+            current[section] += System.nanoTime() - starts[section];
+        }
+    }
+
+    /**
+     * Mark the start of a rendered frame
+     */
+    public static void beginFrame() {
+        if (enabled) {
+            long now = System.nanoTime();
+            frameInterval = (frameStart == 0) ? 0 : now - frameStart;
+            frameStart = now;
+        }
+    }
+
+    /**
+     * Mark the end of a rendered frame and store its timings
+     */
+    public static void endFrame() {
+        if (!enabled || frameInterval == 0) {
+            return;
+        }
+        int slot = frames & MASK;
+        frameHistory[slot] = frameInterval;
+        workHistory[slot] = System.nanoTime() - frameStart;
+        for (int i = 0; i < SECTIONS; i++) {
+            sectionHistory[i][slot] = current[i];
+            current[i] = 0;
+        }
+        frames++;
+        if (frames % REFRESH_FRAMES == 1) {
+            refreshLines();
+        }
+    }
+
+    /**
+     * Note the start of a song, so collections are counted from here
+     */
+    public static void startSong() {
+        songCollections = 0;
+        songCollectionMillis = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            songCollections -= Math.max(0, collector.getCollectionCount());
+            songCollectionMillis -= Math.max(0, collector.getCollectionTime());
+        }
+    }
+
+    /**
+     * Get the overlay text, which is rebuilt every few frames
+     *
+     * @return The lines to draw, with null entries before any frame has been measured
+     */
+    public static String[] getLines() {
+        return lines;
+    }
+
+    private static void refreshLines() {
+        int count = Math.min(frames, HISTORY);
+        lines[0] = String.format(Locale.ROOT, "frame  p50 %5.2f  p99 %5.2f  max %5.2f ms",
+                percentile(frameHistory, count, P50), percentile(frameHistory, count, P99), max(frameHistory, count));
+        lines[1] = String.format(Locale.ROOT, "update p50 %5.2f  p99 %5.2f  max %5.2f ms",
+                percentile(workHistory, count, P50), percentile(workHistory, count, P99), max(workHistory, count));
+        for (int i = 0; i < SECTIONS; i++) {
+            lines[i + 2] = String.format(Locale.ROOT, "%-12s avg %5.2f  max %5.2f ms",
+                    SECTION_NAMES[i], mean(sectionHistory[i], count), max(sectionHistory[i], count));
+        }
+
+        long collections = songCollections;
+        long collectionMillis = songCollectionMillis;
+        for (GarbageCollectorMXBean collector : collectors) {
+            collections += Math.max(0, collector.getCollectionCount());
+            collectionMillis += Math.max(0, collector.getCollectionTime());
+        }
+        lines[SECTIONS + 2] = String.format(Locale.ROOT, "gc this song: %d collections, %d ms",
+                collections, collectionMillis);
+        lines[SECTIONS + 3] = String.format(Locale.ROOT, "textures: %d resident, %d unused, %.1f MB, %d hits, %d misses",
+                ImageCache.getResidentCount(), ImageCache.getUnreferencedCount(), ImageCache.getResidentBytes() / BYTES_PER_MEGABYTE,
+                ImageCache.getHits(), ImageCache.getMisses());
+    }
+
+    /**
+     * Find a percentile of the first values of a history by quickselect on a scratch copy
+     */
+    private static double percentile(long[] history, int count, double fraction) {
+        System.arraycopy(history, 0, scratch, 0, count);
+        int k = Math.max(0, (int) Math.ceil(fraction * count) - 1);
+        int low = 0;
+        int high = count - 1;
+        while (low < high) {
+            long pivot = scratch[(low + high) >>> 1];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (scratch[i] < pivot) {
+                    i++;
+                }
+                while (scratch[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    long swap = scratch[i];
+                    scratch[i] = scratch[j];
+                    scratch[j] = swap;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                high = j;
+            } else if (k >= i) {
+                low = i;
+            } else {
+                break;
+            }
+        }
+        return scratch[k] / NANOS_PER_MILLI;
+    }
+
+    private static double max(long[] history, int count) {
+        long max = 0;
+        for (int i = 0; i < count; i++) {
+            max = Math.max(max, history[i]);
+        }
+        return max / NANOS_PER_MILLI;
+    }
+
+    private static double mean(long[] history, int count) {
+        long total = 0;
+        for (int i = 0; i < count; i++) {
+            total += history[i];
+        }
+        return (count == 0) ? 0 : total / (double) count / NANOS_PER_MILLI;
+    }
+}
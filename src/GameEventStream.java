@@ -0,0 +1,224 @@
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Ring buffer of gameplay events, such as note judgments and enemy kills, written by the game loop
+ * and read by any number of subscribers on other threads.
+ * <p>
+ * Events are stored in preallocated slots, so publishing allocates nothing, and the producer never
+ * waits for subscribers. Each slot carries the sequence number of the event in it, which a
+ * subscriber checks before and after reading the slot, like a seqlock. A subscriber that falls more
+ * than the buffer's capacity behind skips the events that were overwritten and counts them as missed.
+ */
+public class GameEventStream {
+    /**
+     * The number of events a subscriber can fall behind by before it misses any
+     */
+    public static final int CAPACITY = 1024;
+    private static final int MASK = CAPACITY - 1;
+    private static final long WRITING = -1;
+    private static final int NO_LANE = -1;
+    private static final GameEventType[] TYPES = GameEventType.values();
+    private static final LaneDirection[] DIRECTIONS = LaneDirection.values();
+    private static final Judgment[] JUDGMENTS = Judgment.values();
+    private static final SpecialEffect[] EFFECTS = SpecialEffect.values();
+
+    private final AtomicLongArray versions = new AtomicLongArray(CAPACITY);
+    private final int[] types = new int[CAPACITY];
+    private final int[] frames = new int[CAPACITY];
+    private final int[] lanes = new int[CAPACITY];
+    private final int[] codes = new int[CAPACITY];
+    private final int[] values = new int[CAPACITY];
+    private final AtomicLong published = new AtomicLong();
+
+    // producer state, only touched by the game loop
+    private long next = 0;
+    private int frame = 0;
+
+    /**
+     * Set the frame that events published from now on happened in, called by the producer
+     *
+     * @param frame The current frame of the chart
+     */
+    public void setFrame(int frame) {
+        this.frame = frame;
+    }
+
+    /**
+     * Publish a note judgment, called by the producer
+     *
+     * @param lane     The lane of the note
+     * @param judgment The judgment
+     */
+    public void noteJudged(LaneDirection lane, Judgment judgment) {
+        publish(GameEventType.NOTE_JUDGED, lane, judgment.ordinal(), judgment.getScore());
+    }
+
+    /**
+     * Publish the start of a special note's effect, called by the producer
+     *
+     * @param lane   The lane of the special note
+     * @param effect The effect
+     */
+    public void effectApplied(LaneDirection lane, SpecialEffect effect) {
+        publish(GameEventType.EFFECT_APPLIED, lane, effect.ordinal(), 0);
+    }
+
+    /**
+     * Publish an enemy stealing a note, called by the producer
+     *
+     * @param lane The lane of the stolen note
+     */
+    public void noteStolen(LaneDirection lane) {
+        publish(GameEventType.NOTE_STOLEN, lane, 0, 0);
+    }
+
+    /**
+     * Publish an enemy being killed by a projectile, called by the producer
+     */
+    public void enemyKilled() {
+        publish(GameEventType.ENEMY_KILLED, null, 0, 0);
+    }
+
+    private void publish(GameEventType type, LaneDirection lane, int code, int value) {
+        long sequence = next;
+        int slot = (int) sequence & MASK;
+        // mark the slot as being rewritten before any of its fields change
+        versions.lazySet(slot, WRITING);
+        VarHandle.storeStoreFence();
+        types[slot] = type.ordinal();
+        frames[slot] = frame;
+        lanes[slot] = (lane == null) ? NO_LANE : lane.ordinal();
+        codes[slot] = code;
+        values[slot] = value;
+        versions.lazySet(slot, sequence);
+        next = sequence + 1;
+        published.lazySet(next);
+    }
+
+    /**
+     * Start reading the events published from now on. The subscription may be used from any thread,
+     * but only by one thread at a time.
+     *
+     * @return The new subscription
+     */
+    public Subscription subscribe() {
+        return new Subscription(published.get());
+    }
+
+    /**
+     * A subscriber's position in the stream and the fields of the last event it read
+     */
+    public class Subscription {
+        private long cursor;
+        private long missed = 0;
+        private int type;
+        private int eventFrame;
+        private int lane;
+        private int code;
+        private int value;
+
+        private Subscription(long cursor) {
+            this.cursor = cursor;
+        }
+
+        /**
+         * Read the next event, whose fields are then available from the getters
+         *
+         * @return False if no event has been published since the last one read
+         */
+        public boolean poll() {
+            while (true) {
+                long available = published.get();
+                if (cursor >= available) {
+                    return false;
+                }
+                if (available - cursor > CAPACITY) {
+                    missed += available - CAPACITY - cursor;
+                    cursor = available - CAPACITY;
+                }
+
+                int slot = (int) cursor & MASK;
+                if (versions.get(slot) == cursor) {
+                    type = types[slot];
+                    eventFrame = frames[slot];
+                    lane = lanes[slot];
+                    code = codes[slot];
+                    value = values[slot];
+                    VarHandle.loadLoadFence();
+                    if (versions.get(slot) == cursor) {
+                        cursor++;
+                        return true;
+                    }
+                }
+                // the producer lapped this subscriber and overwrote the slot
+                missed++;
+                cursor++;
+            }
+        }
+
+        /**
+         * Get the type of the last event read
+         *
+         * @return The event type
+         */
+        public GameEventType getType() {
+            return TYPES[type];
+        }
+
+        /**
+         * Get the frame the last event read happened in
+         *
+         * @return The frame of the chart
+         */
+        public int getFrame() {
+            return eventFrame;
+        }
+
+        /**
+         * Get the lane of the last event read
+         *
+         * @return The lane, or null for events that do not belong to a lane
+         */
+        public LaneDirection getLane() {
+            return (lane == NO_LANE) ? null : DIRECTIONS[lane];
+        }
+
+        /**
+         * Get the judgment of the last event read, if it was a {@link GameEventType#NOTE_JUDGED} event
+         *
+         * @return The judgment
+         */
+        public Judgment getJudgment() {
+            return JUDGMENTS[code];
+        }
+
+        /**
+         * Get the effect of the last event read, if it was a {@link GameEventType#EFFECT_APPLIED} event
+         *
+         * @return The effect
+         */
+        public SpecialEffect getEffect() {
+            return EFFECTS[code];
+        }
+
+        /**
+         * Get the score of the judgment in the last event read, before any score multiplier
+         *
+         * @return The judgment's score, or 0 for other events
+         */
+        public int getScore() {
+            return value;
+        }
+
+        /**
+         * Get the number of events that were overwritten before this subscriber could read them
+         *
+         * @return The missed event count
+         */
+        public long getMissedCount() {
+            return missed;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+/**
+ * The kinds of gameplay event published to the {@link GameEventStream}
+ */
+public enum GameEventType {
+    NOTE_JUDGED,
+    EFFECT_APPLIED,
+    NOTE_STOLEN,
+    ENEMY_KILLED
+}
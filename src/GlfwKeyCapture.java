@@ -0,0 +1,100 @@
+import bagel.Keys;
+import org.lwjgl.glfw.GLFW;
+import org.lwjgl.glfw.GLFWKeyCallback;
+import org.lwjgl.glfw.GLFWKeyCallbackI;
+
+/**
+ * Timestamps key events when GLFW delivers them, by chaining a callback in front of the one bagel
+ * installed. A table indexed by GLFW key code turns the keys bound to lanes into the lanes' own keys
+ * as they are queued.
+ * <p>
+ * GLFW only delivers events while bagel polls for them on the render thread, once per rendered frame,
+ * so the timestamp is when the events were polled rather than when the key went down. Every event of
+ * a frame gets about the same time, up to a rendered frame after the press, and timing accuracy is
+ * bounded by the render rate. What the timestamps do give is the order and rough time of events
+ * within the steps of a frame, so presses are not all judged on the last step when the game catches
+ * up several steps after a slow frame. Bagel owns the loop and its window, which must be polled on
+ * the thread that created it, so events cannot be pumped faster than frames are rendered.
+ */
+public class GlfwKeyCapture implements GLFWKeyCallbackI {
+    private final KeyEventQueue queue = new KeyEventQueue();
+    private final Keys[] gameKeys = new Keys[GLFW.GLFW_KEY_LAST + 1];
+    private GLFWKeyCallback previous;
+
+    private GlfwKeyCapture(KeyBindings bindings) {
+        gameKeys[GLFW.GLFW_KEY_LEFT_SHIFT] = Keys.LEFT_SHIFT;
+        for (LaneDirection direction : LaneDirection.values()) {
+            int code = toGlfwKey(bindings.getKey(direction));
+            if (code >= 0) {
+                gameKeys[code] = direction.getKey();
+            }
+        }
+    }
+
+    /**
+     * Install the capture on the window of the current GL context, keeping bagel's own callback working
+     *
+     * @param bindings The physical keys that play each lane, whose events are queued as the lanes' own keys
+     * @return The queue of captured events, or null if there is no window to capture from
+     */
+    public static KeyEventQueue install(KeyBindings bindings) {
+        long window = GLFW.glfwGetCurrentContext();
+        if (window == 0) {
+            return null;
+        }
+        GlfwKeyCapture capture = new GlfwKeyCapture(bindings);
+        capture.previous = GLFW.glfwSetKeyCallback(window, capture);
+        return capture.queue;
+    }
+
+    @Override
+    public void invoke(long window, int key, int scancode, int action, int mods) {
+        // the time of the poll that delivered the event, not of the key press itself
+        long time = System.nanoTime();
+        Keys gameKey = (key >= 0 && key < gameKeys.length) ? gameKeys[key] : null;
+        if (gameKey != null && action != GLFW.GLFW_REPEAT) {
+            queue.offer(time, gameKey.ordinal(), action == GLFW.GLFW_PRESS);
+        }
+        if (previous != null) {
+            previous.invoke(window, key, scancode, action, mods);
+        }
+    }
+
+    /**
+     * Map a bagel key to its GLFW key code. Keys without a code here are still played, through bagel's
+     * input, but without a timestamp.
+     *
+     * @return The GLFW key code, or -1 if the key is not mapped
+     */
+    private static int toGlfwKey(Keys key) {
+        String name = key.name();
+        // GLFW codes for letters and digits are their characters
+        if (name.length() == 1) {
+            return name.charAt(0);
+        } else if (name.length() == 5 && name.startsWith("NUM_")) {
+            return name.charAt(4);
+        }
+        switch (key) {
+            case LEFT:
+                return GLFW.GLFW_KEY_LEFT;
+            case RIGHT:
+                return GLFW.GLFW_KEY_RIGHT;
+            case UP:
+                return GLFW.GLFW_KEY_UP;
+            case DOWN:
+                return GLFW.GLFW_KEY_DOWN;
+            case SPACE:
+                return GLFW.GLFW_KEY_SPACE;
+            case ENTER:
+                return GLFW.GLFW_KEY_ENTER;
+            case TAB:
+                return GLFW.GLFW_KEY_TAB;
+            case LEFT_SHIFT:
+                return GLFW.GLFW_KEY_LEFT_SHIFT;
+            case RIGHT_SHIFT:
+                return GLFW.GLFW_KEY_RIGHT_SHIFT;
+            default:
+                return -1;
+        }
+    }
+}
@@ -1,11 +1,10 @@
-import bagel.Image;
 import bagel.util.Vector2;
 
 /**
  * Class for managing the behavior of a guardian entity in the game
  */
 public class Guardian {
-    private final Image GUARDIAN_IMAGE = new Image("res/guardian.png");
+    public final static String IMAGE_FILE = "res/guardian.png";
     private final static double GUARDIAN_X = 800;
     private final static double GUARDIAN_Y = 600;
     private final Vector2 position;
@@ -28,8 +27,10 @@ public class Guardian {
 
     /**
      * Render the guardian at its current position
+     *
+     * @param renderer The renderer to draw with
      */
-    public void render() {
-        GUARDIAN_IMAGE.draw(position.x, position.y);
+    public void render(Renderer renderer) {
+        renderer.drawImage(IMAGE_FILE, position.x, position.y);
     }
 }
@@ -1,21 +1,21 @@
-import bagel.*;
+import bagel.Keys;
 
 /**
  * Class for hold notes
  */
 public class HoldNote extends Note {
-    private static final int HEIGHT_OFFSET = 82;
+    public static final int HEIGHT_OFFSET = 82;
     private static final int DEFAULT_INITIAL_Y = 24;
     private boolean holdStarted = false;
 
     /**
      * Constructor for creating a hold note with a specified direction and appearance frame
      *
-     * @param dir            The direction of the note
+     * @param direction      The lane the note falls down
      * @param appearanceFrame The frame at which the note appears
      */
-    public HoldNote(String dir, int appearanceFrame) {
-        super(dir, appearanceFrame, DEFAULT_INITIAL_Y);
+    public HoldNote(LaneDirection direction, int appearanceFrame) {
+        super(NoteKind.HOLD, direction.getTypeName(), appearanceFrame, DEFAULT_INITIAL_Y);
     }
 
     /**
@@ -25,6 +25,15 @@ public class HoldNote extends Note {
         holdStarted = true;
     }
 
+    /**
+     * Check if the start of the note has been pressed and it is being held
+     *
+     * @return True if the hold has started
+     */
+    public boolean isHoldStarted() {
+        return holdStarted;
+    }
+
     /**
      * Check and score the hold note, considering both the start and end of the hold
      *
@@ -34,9 +43,11 @@ public class HoldNote extends Note {
      * @param relevantKey The relevant key to press/release
      * @return The score based on the accuracy of the note press
      */
-    public int checkScore(Input input, Accuracy accuracy, int targetHeight, Keys relevantKey) {
+    public int checkScore(InputSource input, Accuracy accuracy, int targetHeight, Keys relevantKey) {
         if (isActive() && !holdStarted) {
-            int score = accuracy.evaluateScore(getBottomHeight(), targetHeight, input.wasPressed(relevantKey), false);
+            boolean pressed = input.wasPressed(relevantKey);
+            double height = pressed ? heightAt(getBottomHeight(), input.getPressOffset(relevantKey)) : getBottomHeight();
+            int score = accuracy.evaluateScore(height, targetHeight, pressed, false);
 
             if (score == Accuracy.MISS_SCORE) {
                 deactivate();
@@ -47,14 +58,16 @@ public class HoldNote extends Note {
             }
         } else if (isActive() && holdStarted) {
 
-            int score = accuracy.evaluateScore(getTopHeight(), targetHeight, input.wasReleased(relevantKey), false);
+            boolean released = input.wasReleased(relevantKey);
+            double height = released ? heightAt(getTopHeight(), input.getReleaseOffset(relevantKey)) : getTopHeight();
+            int score = accuracy.evaluateScore(height, targetHeight, released, false);
 
             if (score != Accuracy.NOT_SCORED) {
                 deactivate();
                 return score;
             } else if (input.wasReleased(relevantKey)) {
                 deactivate();
-                accuracy.setAccuracy(Accuracy.MISS);
+                accuracy.setAccuracy(Judgment.MISS);
                 return Accuracy.MISS_SCORE;
             }
         }
@@ -0,0 +1,151 @@
+import bagel.Image;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Process-wide, reference-counted cache of sprite textures keyed by resource path, and the only owner
+ * of the game's textures. A level acquires its images when it starts and releases them when it is
+ * discarded, so playing a level again is served from the textures already resident.
+ * <p>
+ * Bagel has no way to free a texture, so an image that nothing holds any more stays loaded, and is
+ * counted as resident, until it is acquired again.
+ */
+public class ImageCache {
+    private static final int BYTES_PER_PIXEL = 4;
+    private static final Map<String, Entry> entries = new HashMap<>();
+    private static long hits = 0;
+    private static long misses = 0;
+    private static long residentBytes = 0;
+
+    /**
+     * A cached texture and the number of owners currently holding it
+     */
+    private static class Entry {
+        private final Image image;
+        private final long bytes;
+        private int references = 0;
+
+        private Entry(Image image) {
+            this.image = image;
+            this.bytes = (long) image.getWidth() * (long) image.getHeight() * BYTES_PER_PIXEL;
+        }
+    }
+
+    private ImageCache() {
+    }
+
+    /**
+     * Get the entry for a resource path, loading its image if it is not already resident
+     */
+    private static Entry load(String path) {
+        Entry entry = entries.get(path);
+        if (entry == null) {
+            misses++;
+            entry = new Entry(new Image(path));
+            entries.put(path, entry);
+            residentBytes += entry.bytes;
+        }
+        return entry;
+    }
+
+    /**
+     * Load the image for a resource path ahead of its first use, without holding a reference to it
+     *
+     * @param path The file path to the image
+     */
+    public static void preload(String path) {
+        load(path);
+    }
+
+    /**
+     * Get the image for a resource path to draw, loading it only if it is not already resident
+     *
+     * @param path The file path to the image
+     * @return The shared image for the path
+     */
+    public static Image get(String path) {
+        return load(path).image;
+    }
+
+    /**
+     * Hold a reference to the image for a resource path, loading it only if it is not already resident
+     *
+     * @param path The file path to the image
+     * @return The shared image for the path
+     */
+    public static Image acquire(String path) {
+        Entry entry = entries.get(path);
+        if (entry == null) {
+            entry = load(path);
+        } else {
+            hits++;
+        }
+        entry.references++;
+        return entry.image;
+    }
+
+    /**
+     * Release one reference to an image. The texture stays resident for the next acquisition, since
+     * bagel cannot free it.
+     *
+     * @param path The file path the image was acquired with
+     */
+    public static void release(String path) {
+        Entry entry = entries.get(path);
+        if (entry != null && entry.references > 0) {
+            entry.references--;
+        }
+    }
+
+    /**
+     * Get the number of resident textures that nothing holds a reference to
+     *
+     * @return The unreferenced texture count
+     */
+    public static int getUnreferencedCount() {
+        int count = 0;
+        for (Entry entry : entries.values()) {
+            if (entry.references == 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Get the number of acquisitions served from a texture that was already resident
+     *
+     * @return The hit count
+     */
+    public static long getHits() {
+        return hits;
+    }
+
+    /**
+     * Get the number of images that had to be loaded
+     *
+     * @return The miss count
+     */
+    public static long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Get the estimated size of all resident textures, assuming 4 bytes per pixel
+     *
+     * @return The resident texture bytes
+     */
+    public static long getResidentBytes() {
+        return residentBytes;
+    }
+
+    /**
+     * Get the number of distinct textures currently resident
+     *
+     * @return The resident texture count
+     */
+    public static int getResidentCount() {
+        return entries.size();
+    }
+}
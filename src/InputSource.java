@@ -0,0 +1,51 @@
+import bagel.Keys;
+
+/**
+ * Source of key state for the simulation, so gameplay does not depend on a live bagel window
+ */
+public interface InputSource {
+    /**
+     * The number of parts a step is divided into for press and release times
+     */
+    int SUB_STEPS = 256;
+
+    /**
+     * Check if a key went down during the current frame
+     *
+     * @param key The key to check
+     * @return True if the key was pressed this frame
+     */
+    boolean wasPressed(Keys key);
+
+    /**
+     * Check if a key went up during the current frame
+     *
+     * @param key The key to check
+     * @return True if the key was released this frame
+     */
+    boolean wasReleased(Keys key);
+
+    /**
+     * Check if a key is currently held down
+     *
+     * @param key The key to check
+     * @return True if the key is down
+     */
+    boolean isDown(Keys key);
+
+    /**
+     * Get how long before the current step a key was pressed, for judging notes between frames
+     *
+     * @param key The key to check
+     * @return The time in 1/{@link #SUB_STEPS} of a step, or 0 if the press time is not known
+     */
+    int getPressOffset(Keys key);
+
+    /**
+     * Get how long before the current step a key was released
+     *
+     * @param key The key to check
+     * @return The time in 1/{@link #SUB_STEPS} of a step, or 0 if the release time is not known
+     */
+    int getReleaseOffset(Keys key);
+}
@@ -0,0 +1,39 @@
+/**
+ * The messages shown in the centre of the screen after a note is judged or an effect starts
+ */
+public enum Judgment {
+    PERFECT("PERFECT", Accuracy.PERFECT_SCORE),
+    GOOD("GOOD", Accuracy.GOOD_SCORE),
+    BAD("BAD", Accuracy.BAD_SCORE),
+    MISS("MISS", Accuracy.MISS_SCORE),
+    DOUBLE_SCORE("Double Score", Accuracy.NOT_SCORED),
+    SPEED_UP("Speed Up", Accuracy.NOT_SCORED),
+    SLOW_DOWN("Slow Down", Accuracy.NOT_SCORED),
+    LANE_CLEAR("Lane Clear", Accuracy.NOT_SCORED);
+
+    private final String text;
+    private final int score;
+
+    Judgment(String text, int score) {
+        this.text = text;
+        this.score = score;
+    }
+
+    /**
+     * Get the message to display
+     *
+     * @return The message text
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Get the score of a note judgment, before any score multiplier
+     *
+     * @return The score, which is 0 for effect messages
+     */
+    public int getScore() {
+        return score;
+    }
+}
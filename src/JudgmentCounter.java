@@ -0,0 +1,128 @@
+/**
+ * Subscriber that counts the judgments, effects and enemy events of a {@link GameEventStream} on a thread
+ * of its own, so the game loop only pays for publishing them. The counts add up over every stream the
+ * counter has followed, and may only be read once it is stopped.
+ */
+public class JudgmentCounter implements Runnable {
+    private final long[] judgments = new long[Judgment.values().length];
+    private final long[] effects = new long[SpecialEffect.values().length];
+    private long stolen = 0;
+    private long kills = 0;
+    private long missed = 0;
+
+    private GameEventStream.Subscription subscription = null;
+    private Thread thread = null;
+    private volatile boolean stopping = false;
+
+    /**
+     * Start counting the events published to a stream from now on, on a new thread
+     *
+     * @param events The stream to follow
+     */
+    public void start(GameEventStream events) {
+        subscription = events.subscribe();
+        stopping = false;
+        thread = new Thread(this, "judgment-counter");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Count the events that are left and stop the counting thread
+     */
+    public void stop() {
+        stopping = true;
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        missed += subscription.getMissedCount();
+    }
+
+    @Override
+    public void run() {
+        while (!stopping) {
+            if (!countAvailable()) {
+                Thread.yield();
+            }
+        }
+        // the producer has stopped, so this reads the last events it published
+        countAvailable();
+    }
+
+    /**
+     * Count every event published since the last one read
+     *
+     * @return False if there was none
+     */
+    private boolean countAvailable() {
+        boolean read = false;
+        while (subscription.poll()) {
+            read = true;
+            switch (subscription.getType()) {
+                case NOTE_JUDGED:
+                    judgments[subscription.getJudgment().ordinal()]++;
+                    break;
+                case EFFECT_APPLIED:
+                    effects[subscription.getEffect().ordinal()]++;
+                    break;
+                case NOTE_STOLEN:
+                    stolen++;
+                    break;
+                case ENEMY_KILLED:
+                    kills++;
+                    break;
+            }
+        }
+        return read;
+    }
+
+    /**
+     * Get the number of notes given a judgment
+     *
+     * @param judgment The judgment
+     * @return The note count
+     */
+    public long getJudgmentCount(Judgment judgment) {
+        return judgments[judgment.ordinal()];
+    }
+
+    /**
+     * Get the number of times a special note's effect started
+     *
+     * @param effect The effect
+     * @return The effect count
+     */
+    public long getEffectCount(SpecialEffect effect) {
+        return effects[effect.ordinal()];
+    }
+
+    /**
+     * Get the number of notes stolen by enemies
+     *
+     * @return The stolen note count
+     */
+    public long getStolenCount() {
+        return stolen;
+    }
+
+    /**
+     * Get the number of enemies killed by projectiles
+     *
+     * @return The kill count
+     */
+    public long getKillCount() {
+        return kills;
+    }
+
+    /**
+     * Get the number of events that were overwritten before the counter could read them, which are not
+     * in any other count
+     *
+     * @return The missed event count
+     */
+    public long getMissedCount() {
+        return missed;
+    }
+}
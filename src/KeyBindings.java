@@ -0,0 +1,148 @@
+import bagel.Keys;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * The physical keys that play each lane. The game and its replays always see a lane's own key from
+ * {@link LaneDirection#getKey()}, and the bindings translate between those and the keys the player
+ * presses through dense tables indexed by key.
+ * <p>
+ * Bindings are read from a properties file of lane type names and bagel key names, such as "Left=A".
+ * Lanes that are not listed keep their own key, and a lane's own key does nothing once the lane is
+ * bound to another one. Keys the game reads for its own actions, such as shooting or pausing, cannot
+ * play a lane.
+ */
+public class KeyBindings {
+    /**
+     * The file the game reads its bindings from, if it exists
+     */
+    public static final String DEFAULT_PATH = "keys.properties";
+    private static final Keys[] KEYS = Keys.values();
+    private static final LaneDirection[] DIRECTIONS = LaneDirection.values();
+    private static final Keys[] RESERVED_KEYS = {
+            Keys.LEFT_SHIFT, Keys.ESCAPE, Keys.TAB, Keys.F3, Keys.NUM_1, Keys.NUM_2, Keys.NUM_3
+    };
+
+    private final Keys[] boundKeys = new Keys[DIRECTIONS.length];
+    private final Keys[] physicalKeys = new Keys[KEYS.length];
+    private final Keys[] gameKeys = new Keys[KEYS.length];
+
+    /**
+     * Constructor for bindings where every lane is played with its own key
+     */
+    public KeyBindings() {
+        this(new EnumMap<>(LaneDirection.class));
+    }
+
+    /**
+     * Constructor for bindings of some lanes to other keys
+     *
+     * @param keys The key that plays each rebound lane, where lanes that are not included keep their own key
+     * @throws IllegalArgumentException If a key would play two lanes, or is one the game reads for its own actions
+     */
+    public KeyBindings(Map<LaneDirection, Keys> keys) {
+        for (LaneDirection direction : DIRECTIONS) {
+            Keys key = keys.getOrDefault(direction, direction.getKey());
+            for (Keys reserved : RESERVED_KEYS) {
+                if (key == reserved) {
+                    throw new IllegalArgumentException(key + " is used by the game and cannot play the "
+                            + direction.getTypeName() + " lane");
+                }
+            }
+            for (int i = 0; i < direction.ordinal(); i++) {
+                if (boundKeys[i] == key) {
+                    throw new IllegalArgumentException(key + " cannot play both the " + DIRECTIONS[i].getTypeName()
+                            + " and " + direction.getTypeName() + " lanes");
+                }
+            }
+            boundKeys[direction.ordinal()] = key;
+        }
+
+        for (int i = 0; i < KEYS.length; i++) {
+            physicalKeys[i] = KEYS[i];
+            gameKeys[i] = KEYS[i];
+        }
+        for (LaneDirection direction : DIRECTIONS) {
+            gameKeys[direction.getKey().ordinal()] = null;
+        }
+        for (LaneDirection direction : DIRECTIONS) {
+            Keys key = boundKeys[direction.ordinal()];
+            physicalKeys[direction.getKey().ordinal()] = key;
+            gameKeys[key.ordinal()] = direction.getKey();
+        }
+    }
+
+    /**
+     * Get the key bound to a lane
+     *
+     * @param direction The lane
+     * @return The key that plays the lane
+     */
+    public Keys getKey(LaneDirection direction) {
+        return boundKeys[direction.ordinal()];
+    }
+
+    /**
+     * Get the key the player presses for a key the game reads
+     *
+     * @param gameKey A key as the game reads it, such as a lane's own key
+     * @return The physical key
+     */
+    public Keys toPhysicalKey(Keys gameKey) {
+        return physicalKeys[gameKey.ordinal()];
+    }
+
+    /**
+     * Get the key the game reads for a key the player pressed
+     *
+     * @param physicalKey The physical key
+     * @return The key as the game reads it, or null if the key is a lane's own key and the lane is bound elsewhere
+     */
+    public Keys toGameKey(Keys physicalKey) {
+        return gameKeys[physicalKey.ordinal()];
+    }
+
+    /**
+     * Read key bindings from a properties file. A missing file gives the default bindings, and lines
+     * naming an unknown lane or key are skipped with a warning.
+     *
+     * @param path The file path to the bindings
+     * @return The key bindings
+     */
+    public static KeyBindings load(String path) {
+        Properties properties = new Properties();
+        try (Reader reader = new FileReader(path)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            return new KeyBindings();
+        }
+
+        Map<LaneDirection, Keys> keys = new EnumMap<>(LaneDirection.class);
+        for (String laneType : properties.stringPropertyNames()) {
+            String keyName = properties.getProperty(laneType).trim();
+            LaneDirection direction = LaneDirection.fromTypeName(laneType);
+            if (direction == null) {
+                System.err.println(path + ": unknown lane type " + laneType + ", skipped");
+                continue;
+            }
+            try {
+                keys.put(direction, Keys.valueOf(keyName.toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                System.err.println(path + ": unknown key " + keyName + " for " + laneType + ", skipped");
+            }
+        }
+
+        try {
+            return new KeyBindings(keys);
+        } catch (IllegalArgumentException e) {
+            System.err.println(path + ": " + e.getMessage() + ", using the default keys");
+            return new KeyBindings();
+        }
+    }
+}
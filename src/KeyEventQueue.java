@@ -0,0 +1,96 @@
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded single-producer single-consumer queue of timestamped key events. The input callback
+ * offers events as GLFW delivers them and the game loop polls them, without locks or allocation.
+ * Both run on the render thread today, but the queue stays safe if events are ever captured on
+ * another thread. Events offered while the queue is full are dropped.
+ */
+public class KeyEventQueue {
+    private static final int CAPACITY = 256;
+    private static final int MASK = CAPACITY - 1;
+
+    private final long[] times = new long[CAPACITY];
+    private final int[] keys = new int[CAPACITY];
+    private final boolean[] presses = new boolean[CAPACITY];
+    private final AtomicInteger head = new AtomicInteger();
+    private final AtomicInteger tail = new AtomicInteger();
+
+    private long polledTime;
+    private int polledKey;
+    private boolean polledPress;
+
+    /**
+     * Add an event, called only by the producer
+     *
+     * @param time  The time of the event from {@link System#nanoTime()}
+     * @param key   The ordinal of the bagel key
+     * @param press True for a press, false for a release
+     * @return False if the queue was full and the event was dropped
+     */
+    public boolean offer(long time, int key, boolean press) {
+        int t = tail.get();
+        if (t - head.get() == CAPACITY) {
+            return false;
+        }
+        times[t & MASK] = time;
+        keys[t & MASK] = key;
+        presses[t & MASK] = press;
+        // publishes the slot to the consumer
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    /**
+     * Take the oldest event, called only by the consumer. Its fields are then read with
+     * {@link #getTime()}, {@link #getKey()} and {@link #isPress()}.
+     *
+     * @return False if there was no event
+     */
+    public boolean poll() {
+        int h = head.get();
+        if (h == tail.get()) {
+            return false;
+        }
+        polledTime = times[h & MASK];
+        polledKey = keys[h & MASK];
+        polledPress = presses[h & MASK];
+        // frees the slot for the producer
+        head.lazySet(h + 1);
+        return true;
+    }
+
+    /**
+     * Drop every queued event, called only by the consumer
+     */
+    public void clear() {
+        head.lazySet(tail.get());
+    }
+
+    /**
+     * Get the time of the last polled event
+     *
+     * @return The time from {@link System#nanoTime()}
+     */
+    public long getTime() {
+        return polledTime;
+    }
+
+    /**
+     * Get the key of the last polled event
+     *
+     * @return The ordinal of the bagel key
+     */
+    public int getKey() {
+        return polledKey;
+    }
+
+    /**
+     * Check if the last polled event was a press
+     *
+     * @return True for a press, false for a release
+     */
+    public boolean isPress() {
+        return polledPress;
+    }
+}
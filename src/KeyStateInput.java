@@ -0,0 +1,96 @@
+import bagel.Keys;
+
+/**
+ * Input source driven programmatically, for headless runs, bots and replays
+ */
+public class KeyStateInput implements InputSource {
+    private static final int KEY_COUNT = Keys.values().length;
+    private final boolean[] down = new boolean[KEY_COUNT];
+    private final boolean[] pressed = new boolean[KEY_COUNT];
+    private final boolean[] released = new boolean[KEY_COUNT];
+    private final int[] pressOffsets = new int[KEY_COUNT];
+    private final int[] releaseOffsets = new int[KEY_COUNT];
+
+    /**
+     * Press a key for the current frame
+     *
+     * @param key The key to press
+     */
+    public void press(Keys key) {
+        press(key, 0);
+    }
+
+    /**
+     * Press a key part of the way through the step before the current one
+     *
+     * @param key    The key to press
+     * @param offset How long before the current step the key went down, in 1/{@link #SUB_STEPS} of a step
+     */
+    public void press(Keys key, int offset) {
+        if (!down[key.ordinal()]) {
+            down[key.ordinal()] = true;
+            pressed[key.ordinal()] = true;
+            pressOffsets[key.ordinal()] = offset;
+        }
+    }
+
+    /**
+     * Release a key for the current frame
+     *
+     * @param key The key to release
+     */
+    public void release(Keys key) {
+        release(key, 0);
+    }
+
+    /**
+     * Release a key part of the way through the step before the current one
+     *
+     * @param key    The key to release
+     * @param offset How long before the current step the key went up, in 1/{@link #SUB_STEPS} of a step
+     */
+    public void release(Keys key, int offset) {
+        if (down[key.ordinal()]) {
+            down[key.ordinal()] = false;
+            released[key.ordinal()] = true;
+            releaseOffsets[key.ordinal()] = offset;
+        }
+    }
+
+    /**
+     * Clear this frame's presses and releases, keeping held keys down
+     */
+    public void endFrame() {
+        for (int i = 0; i < KEY_COUNT; i++) {
+            pressed[i] = false;
+            released[i] = false;
+            pressOffsets[i] = 0;
+            releaseOffsets[i] = 0;
+        }
+    }
+
+    @Override
+    public boolean wasPressed(Keys key) {
+        return pressed[key.ordinal()];
+    }
+
+    @Override
+    public boolean wasReleased(Keys key) {
+        return released[key.ordinal()];
+    }
+
+    @Override
+    public boolean isDown(Keys key) {
+        return down[key.ordinal()];
+    }
+
+    @Override
+    public int getPressOffset(Keys key) {
+        return pressOffsets[key.ordinal()];
+    }
+
+    @Override
+    public int getReleaseOffset(Keys key) {
+        return releaseOffsets[key.ordinal()];
+    }
+}
@@ -1,53 +1,35 @@
-import bagel.*;
+import bagel.Keys;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Set;
 
 /**
- * Class for the lanes which notes fall down
+ * Class for the lanes which notes fall down. A lane's notes are reached by their index in
+ * appearance order, whichever way the lane stores them: {@link NoteLane} holds note objects and
+ * {@link PackedLane} packs them into primitive arrays.
  */
-public class Lane {
+public abstract class Lane {
     private static final int HEIGHT = 384;
-    private static final int TARGET_HEIGHT = 657;
+    public static final int TARGET_HEIGHT = 657;
     private static final int EFFECT_FRAMES = 480;
     private static final int SPEED_EFFECT = 1;
     private static final int SCORE_MULTIPLIER = 2;
 
-    private final String type;
-    private final Image image;
-    private Keys relevantKey;
+    private final LaneDirection direction;
+    private final String imagePath;
+    private final Keys relevantKey;
     private final int location;
-    private int currNote = 0;
-
-    private final List<Note> notes = new ArrayList<>();
 
     /**
      * Constructor for creating a game lane
      *
-     * @param dir      The type of lane
-     * @param location The x position of the lane
+     * @param direction The type of lane
+     * @param location  The x position of the lane
      */
-    public Lane(String dir, int location) {
-        this.type = dir;
+    public Lane(LaneDirection direction, int location) {
+        this.direction = direction;
         this.location = location;
-        image = new Image("res/lane" + dir + ".png");
-        switch (dir) {
-            case "Left":
-                relevantKey = Keys.LEFT;
-                break;
-            case "Right":
-                relevantKey = Keys.RIGHT;
-                break;
-            case "Up":
-                relevantKey = Keys.UP;
-                break;
-            case "Down":
-                relevantKey = Keys.DOWN;
-                break;
-            case "Special":
-                relevantKey = Keys.SPACE;
-                break;
-        }
+        imagePath = "res/lane" + direction.getTypeName() + ".png";
+        relevantKey = direction.getKey();
     }
 
     /**
@@ -55,16 +37,111 @@ public class Lane {
      *
      * @return The type of the lane
      */
-    public String getType() {
-        return type;
+    public LaneDirection getDirection() {
+        return direction;
     }
 
     /**
-     * Get the list of notes in the lane
+     * Get the key that plays the lane
+     *
+     * @return The lane's key
+     */
+    public Keys getKey() {
+        return relevantKey;
+    }
+
+    /**
+     * Get the number of notes currently held by the lane
+     *
+     * @return The resident note count
+     */
+    public abstract int getResidentCount();
+
+    /**
+     * Get the index just past the last resident note, which is the resident count unless notes
+     * behind the window have been dropped
+     *
+     * @return The end of the resident notes
+     */
+    public abstract int getResidentEnd();
+
+    /**
+     * Get the index of the first note that is not yet finished
+     *
+     * @return The start of the window of notes on screen
+     */
+    public abstract int getWindowStart();
+
+    /**
+     * Get the index just past the last note that has appeared
+     *
+     * @return The end of the window of notes on screen
+     */
+    public abstract int getWindowEnd();
+
+    /**
+     * Get the kind of a resident note
+     *
+     * @param index The index of the note
+     * @return The note kind
+     */
+    public abstract NoteKind getNoteKind(int index);
+
+    /**
+     * Get the frame at which a resident note appears
+     *
+     * @param index The index of the note
+     * @return The appearance frame
+     */
+    public abstract int getNoteFrame(int index);
+
+    /**
+     * Get the vertical position of a resident note, which is where it appears until it has appeared
+     *
+     * @param index The index of the note
+     * @return The vertical position
+     */
+    public abstract int getNoteY(int index);
+
+    /**
+     * Check if a note in the window is active
+     *
+     * @param index The index of the note
+     * @return True if the note is active
+     */
+    public abstract boolean isNoteActive(int index);
+
+    /**
+     * Check if a note in the window is a hold note whose start has been pressed
+     *
+     * @param index The index of the note
+     * @return True if the note is being held
+     */
+    public abstract boolean isHoldStarted(int index);
+
+    /**
+     * Check if a note in the window has been stolen by an enemy
+     *
+     * @param index The index of the note
+     * @return True if the note is stolen
+     */
+    public abstract boolean isNoteStolen(int index);
+
+    /**
+     * Mark a note in the window as stolen by an enemy
      *
-     * @return The list of notes in the lane
+     * @param index The index of the note
      */
-    public List<Note> getNotes() {return notes;}
+    public abstract void stealNote(int index);
+
+    /**
+     * Add the images the lane and its held notes are drawn with
+     *
+     * @param paths The set of image paths to add to
+     */
+    public void collectImagePaths(Set<String> paths) {
+        paths.add(imagePath);
+    }
 
     /**
      * Get the horizontal location of the lane
@@ -74,16 +151,26 @@ public class Lane {
     public int getLocation() {return location;}
 
     /**
-     * Deactivate all active notes in the lane
+     * Check if any of the lane's notes changes the speed or score multiplier of the whole level,
+     * which every special note but a bomb does
+     *
+     * @return True if the lane can change the level's shared state
      */
-    public void deactivateAllActiveNotes() {
-        for (Note note : notes) {
-            if (note.isActive()) {
-                note.deactivate();
+    public boolean hasLevelEffects() {
+        for (int i = getWindowStart(); i < getResidentEnd(); i++) {
+            SpecialEffect effect = getNoteKind(i).getEffect();
+            if (effect != null && effect != SpecialEffect.BOMB) {
+                return true;
             }
         }
+        return false;
     }
 
+    /**
+     * Deactivate all active notes in the lane, which can only be inside the window
+     */
+    public abstract void deactivateAllActiveNotes();
+
     /**
      * Update all the notes in the lane and handle game effects
      *
@@ -92,76 +179,112 @@ public class Lane {
      * @param level    The game level
      * @return The score based on the accuracy of the note press
      */
-    public int update(Input input, Accuracy accuracy, Levels level) {
+    public int update(InputSource input, Accuracy accuracy, Levels level) {
+        return update(input, accuracy, level, input.wasPressed(relevantKey) || input.wasReleased(relevantKey));
+    }
+
+    /**
+     * Update all the notes in the lane and handle game effects, when it is already known whether
+     * the lane's key was pressed or released this step
+     *
+     * @param input      The game input
+     * @param accuracy   The accuracy manager
+     * @param level      The game level
+     * @param keyChanged Whether the lane's key was pressed or released this step
+     * @return The score based on the accuracy of the note press
+     */
+    public int update(InputSource input, Accuracy accuracy, Levels level, boolean keyChanged) {
+        countEffectFrame(level);
+        accuracy.setLane(direction);
+        return updateNotes(input, accuracy, level, keyChanged);
+    }
+
+    /**
+     * Count a lane update towards the double score window, ending the window once it has lasted
+     * long enough. Every lane counts every frame, whether or not it has notes left.
+     *
+     * @param level The game level
+     */
+    public static void countEffectFrame(Levels level) {
         // Making effect last for set amount of frames
         level.setFrameCount(level.getFrameCount()+1);
         if (level.getFrameCount() > EFFECT_FRAMES){
             level.setScoreMultiplier(1);
         }
-        draw();
-        for (int i = currNote; i < notes.size(); i++) {
-            Note note = notes.get(i);
-            note.update(level.getSpeedEffect());
-
-            int score = note.checkScore(input, accuracy, TARGET_HEIGHT, relevantKey);
-
-            if (note.isCompleted()) {
-                if (note instanceof SpecialNote) {
-                    String effect = ((SpecialNote) note).checkEffect(accuracy);
-
-                    switch (effect) {
-                        case "SpeedUp":
-                            level.setSpeedEffect(level.getSpeedEffect() + SPEED_EFFECT);
-                            break;
-                        case "SlowDown":
-                            level.setSpeedEffect(level.getSpeedEffect() - SPEED_EFFECT);
-                            break;
-                        case "2x":
-                            level.setFrameCount(0);
-                            level.setScoreMultiplier(level.getScoreMultiplier() * SCORE_MULTIPLIER);
-                            break;
-                        case "Bomb":
-                            deactivateAllActiveNotes();
-                            break;
-                    }
-                }
-                currNote++;
-                return score * level.getScoreMultiplier();
-            }
+    }
+
+    /**
+     * Update the notes on screen until one of them is finished. A note can only be judged when the
+     * lane's key changed or when it reaches the bottom of the screen, so without either the note is
+     * only moved.
+     *
+     * @param input      The game input
+     * @param accuracy   The accuracy manager
+     * @param level      The game level
+     * @param keyChanged Whether the lane's key was pressed or released this step
+     * @return The score of the finished note, or {@link Accuracy#NOT_SCORED} if none finished
+     */
+    protected abstract int updateNotes(InputSource input, Accuracy accuracy, Levels level, boolean keyChanged);
+
+    /**
+     * Apply the effect of a finished special note to the level
+     *
+     * @param effect The effect, or null if the note has none
+     * @param level  The game level
+     */
+    protected void applyEffect(SpecialEffect effect, Levels level) {
+        if (effect == null) {
+            return;
+        }
+        switch (effect) {
+            case SPEED_UP:
+                level.setSpeedEffect(level.getSpeedEffect() + SPEED_EFFECT);
+                break;
+            case SLOW_DOWN:
+                level.setSpeedEffect(level.getSpeedEffect() - SPEED_EFFECT);
+                break;
+            case DOUBLE_SCORE:
+                level.setFrameCount(0);
+                level.setScoreMultiplier(level.getScoreMultiplier() * SCORE_MULTIPLIER);
+                break;
+            case BOMB:
+                deactivateAllActiveNotes();
+                break;
         }
-        return Accuracy.NOT_SCORED;
     }
 
     /**
      * Add a note to the lane
      *
-     * @param note The note to be added to the lane
+     * @param kind  The kind of note
+     * @param frame The frame at which the note appears
      */
-    public void addNote(Note note) {
-        notes.add(note);
-    }
+    public abstract void addNote(NoteKind kind, int frame);
 
     /**
      * Check if the lane is finished, which occurs when all notes have been pressed or missed
      *
      * @return True if the lane is finished, false otherwise
      */
-    public boolean isFinished() {
-        return currNote >= notes.size();
-    }
+    public abstract boolean isFinished();
 
     /**
      * Draws the lane and the notes
+     *
+     * @param renderer The renderer to draw with
+     * @param alpha    How far rendering is between the last two simulation steps
      */
-    public void draw() {
-        image.draw(location, HEIGHT);
-
-        for (int i = currNote; i < notes.size(); i++) {
-            if(!notes.get(i).isStolen()){
-                notes.get(i).draw(location);
-            }
-        }
+    public void draw(Renderer renderer, double alpha) {
+        renderer.drawImage(imagePath, location, HEIGHT);
+        drawNotes(renderer, alpha);
     }
 
-}
+    /**
+     * Draws the notes on screen that have not been stolen
+     *
+     * @param renderer The renderer to draw with
+     * @param alpha    How far rendering is between the last two simulation steps
+     */
+    protected abstract void drawNotes(Renderer renderer, double alpha);
 
+}
@@ -0,0 +1,59 @@
+import bagel.Keys;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The lanes a chart can declare, each played with its own key
+ */
+public enum LaneDirection {
+    LEFT("Left", Keys.LEFT),
+    RIGHT("Right", Keys.RIGHT),
+    UP("Up", Keys.UP),
+    DOWN("Down", Keys.DOWN),
+    SPECIAL("Special", Keys.SPACE);
+
+    private static final Map<String, LaneDirection> BY_NAME = new HashMap<>();
+
+    static {
+        for (LaneDirection direction : values()) {
+            BY_NAME.put(direction.typeName, direction);
+        }
+    }
+
+    private final String typeName;
+    private final Keys key;
+
+    LaneDirection(String typeName, Keys key) {
+        this.typeName = typeName;
+        this.key = key;
+    }
+
+    /**
+     * Get the name the lane has in charts and image file names
+     *
+     * @return The lane type name, such as "Left"
+     */
+    public String getTypeName() {
+        return typeName;
+    }
+
+    /**
+     * Get the key that plays the lane
+     *
+     * @return The lane's key
+     */
+    public Keys getKey() {
+        return key;
+    }
+
+    /**
+     * Find the lane for a type name from a chart
+     *
+     * @param typeName The lane type name
+     * @return The lane, or null if the name is unknown
+     */
+    public static LaneDirection fromTypeName(String typeName) {
+        return BY_NAME.get(typeName);
+    }
+}
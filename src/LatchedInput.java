@@ -0,0 +1,139 @@
+import bagel.Keys;
+
+/**
+ * Input source that holds presses and releases until the simulation step they belong to.
+ * When the game runs several steps in one rendered frame each press is seen once, and when it
+ * runs none the press carries over to the next frame instead of being lost.
+ * <p>
+ * Keys captured with timestamps are given to the first step at or after the time they were
+ * captured, along with how far before that step the capture was. Other keys go to the next step.
+ * Captures are only as precise as the render rate, see {@link GlfwKeyCapture}.
+ */
+public class LatchedInput implements InputSource {
+    private static final Keys[] KEYS = Keys.values();
+    private static final double UNTIMED = Double.NEGATIVE_INFINITY;
+
+    private final boolean[] pressed = new boolean[KEYS.length];
+    private final boolean[] released = new boolean[KEYS.length];
+    private final double[] pressFrames = new double[KEYS.length];
+    private final double[] releaseFrames = new double[KEYS.length];
+    private final boolean[] timed = new boolean[KEYS.length];
+    private InputSource live;
+    private int stepFrame = 0;
+
+    /**
+     * Collect the timestamped events of a rendered frame. Called before {@link #latch(InputSource)},
+     * so the same presses are not also taken from the untimed input.
+     *
+     * @param queue    The captured key events
+     * @param timeline The timeline that converts event times to chart frames
+     */
+    public void latch(KeyEventQueue queue, AudioTimeline timeline) {
+        while (queue.poll()) {
+            int key = queue.getKey();
+            double frame = timeline.getFrameAt(queue.getTime());
+            timed[key] = true;
+            if (queue.isPress()) {
+                if (!pressed[key]) {
+                    pressed[key] = true;
+                    pressFrames[key] = frame;
+                }
+            } else if (!released[key]) {
+                released[key] = true;
+                releaseFrames[key] = frame;
+            }
+        }
+    }
+
+    /**
+     * Collect the presses and releases of a rendered frame for keys that are not timestamped
+     *
+     * @param live The input of the rendered frame
+     */
+    public void latch(InputSource live) {
+        this.live = live;
+        for (int i = 0; i < KEYS.length; i++) {
+            if (timed[i]) {
+                continue;
+            }
+            if (live.wasPressed(KEYS[i]) && !pressed[i]) {
+                pressed[i] = true;
+                pressFrames[i] = UNTIMED;
+            }
+            if (live.wasReleased(KEYS[i]) && !released[i]) {
+                released[i] = true;
+                releaseFrames[i] = UNTIMED;
+            }
+        }
+    }
+
+    /**
+     * Set the frame of the step about to run, which decides the presses it sees
+     *
+     * @param frame The frame the step advances to
+     */
+    public void beginStep(int frame) {
+        stepFrame = frame;
+    }
+
+    /**
+     * Clear the presses and releases the last step has seen
+     */
+    public void consume() {
+        for (int i = 0; i < KEYS.length; i++) {
+            if (pressed[i] && pressFrames[i] <= stepFrame) {
+                pressed[i] = false;
+            }
+            if (released[i] && releaseFrames[i] <= stepFrame) {
+                released[i] = false;
+            }
+        }
+    }
+
+    /**
+     * Drop every latched press and release, called when play starts or resumes
+     */
+    public void clear() {
+        for (int i = 0; i < KEYS.length; i++) {
+            pressed[i] = false;
+            released[i] = false;
+        }
+    }
+
+    @Override
+    public boolean wasPressed(Keys key) {
+        return pressed[key.ordinal()] && pressFrames[key.ordinal()] <= stepFrame;
+    }
+
+    @Override
+    public boolean wasReleased(Keys key) {
+        return released[key.ordinal()] && releaseFrames[key.ordinal()] <= stepFrame;
+    }
+
+    @Override
+    public boolean isDown(Keys key) {
+        return live != null && live.isDown(key);
+    }
+
+    @Override
+    public int getPressOffset(Keys key) {
+        return wasPressed(key) ? toOffset(pressFrames[key.ordinal()]) : 0;
+    }
+
+    @Override
+    public int getReleaseOffset(Keys key) {
+        return wasReleased(key) ? toOffset(releaseFrames[key.ordinal()]) : 0;
+    }
+
+    /**
+     * Quantize the time between an event and the current step, so a replay of the offsets
+     * judges exactly the same way
+     */
+    private int toOffset(double frame) {
+        if (frame == UNTIMED) {
+            return 0;
+        }
+        int offset = (int) ((stepFrame - frame) * SUB_STEPS);
+        return Math.max(0, Math.min(offset, SUB_STEPS - 1));
+    }
+}
@@ -1,14 +1,19 @@
+import java.io.IOException;
+
 public class Level1 extends Levels {
-    private final static String CSV_FILE = "res/level1.csv";
+    public final static String CSV_FILE = "res/level1.csv";
     private final static String TRACK_FILE = "res/track1.wav";
-    private final static int CLEAR_SCORE = 150;
+    public final static int CLEAR_SCORE = 150;
 
     /**
      * Constructor for level 1
+     *
+     * @throws IOException          If the chart cannot be read
+     * @throws ChartFormatException If the chart is not valid
      */
-    public Level1() {
+    public Level1() throws IOException, ChartFormatException {
         super(CLEAR_SCORE, TRACK_FILE);
-        readCSV(CSV_FILE);
+        readChart(CSV_FILE);
     }
 }
 
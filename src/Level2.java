@@ -1,14 +1,19 @@
+import java.io.IOException;
+
 public class Level2 extends Levels {
-    private final static String CSV_FILE = "res/level2.csv";
+    public final static String CSV_FILE = "res/level2.csv";
     private final static String TRACK_FILE ="res/track2.wav";
-    private final static int CLEAR_SCORE = 400;
+    public final static int CLEAR_SCORE = 400;
 
     /**
      * Constructor for level 2
+     *
+     * @throws IOException          If the chart cannot be read
+     * @throws ChartFormatException If the chart is not valid
      */
-    public Level2() {
+    public Level2() throws IOException, ChartFormatException {
         super(CLEAR_SCORE, TRACK_FILE);
-        readCSV(CSV_FILE);
+        readChart(CSV_FILE);
     }
 
 
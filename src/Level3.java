@@ -1,26 +1,93 @@
-import bagel.Input;
 import bagel.Keys;
 
-import java.util.ArrayList;
+import java.io.IOException;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
 
 public class Level3 extends Levels {
-    private final static String CSV_FILE = "res/level3.csv";
+    public final static String CSV_FILE = "res/level3.csv";
     private final static String TRACK_FILE ="res/track3.wav";
-    private final static int CLEAR_SCORE = 350;
+    public final static int CLEAR_SCORE = 350;
     private final static int ENEMY_CREATION_RATE = 600;
+    private final static int RESERVED_ENEMIES = 8;
+    private final static int RESERVED_PROJECTILES = 32;
 
     private final Guardian guardian = new Guardian();
-    private final ArrayList<Enemy> enemies = new ArrayList<>();
-    private final ArrayList<Projectile> projectiles = new ArrayList<>();
+    private final EntityManager<Enemy> enemies = new EntityManager<>(Enemy::new);
+    private final EntityManager<Projectile> projectiles = new EntityManager<>(Projectile::new);
+    private final NoteCollisionIndex noteIndex = new NoteCollisionIndex();
+    private final long seed;
+    private final Random random;
 
     /**
-     * Constructor for level 3
+     * Constructor for level 3 with a fresh random seed
+     *
+     * @throws IOException          If the chart cannot be read
+     * @throws ChartFormatException If the chart is not valid
+     */
+    public Level3() throws IOException, ChartFormatException {
+        this(new Random().nextLong());
+    }
+
+    /**
+     * Constructor for level 3 whose enemies spawn from a given seed, so a replay plays out identically
+     *
+     * @param seed The seed for every random choice in the level
+     * @throws IOException          If the chart cannot be read
+     * @throws ChartFormatException If the chart is not valid
      */
-    public Level3() {
+    public Level3(long seed) throws IOException, ChartFormatException {
         super(CLEAR_SCORE, TRACK_FILE);
-        readCSV(CSV_FILE);
+        this.seed = seed;
+        random = new Random(seed);
+        readChart(CSV_FILE);
+        enemies.reserve(RESERVED_ENEMIES);
+        projectiles.reserve(RESERVED_PROJECTILES);
+    }
 
+    /**
+     * Get the seed the level's random choices come from
+     *
+     * @return The seed
+     */
+    @Override
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Level 3's enemies steal notes from any lane they reach, so its lanes are not independent
+     *
+     * @return False
+     */
+    @Override
+    public boolean hasIndependentLanes() {
+        return false;
+    }
+
+    /**
+     * Add the level's images, including the guardian, enemies and projectiles
+     *
+     * @param paths The set of image paths to add to
+     */
+    @Override
+    public void collectImagePaths(Set<String> paths) {
+        super.collectImagePaths(paths);
+        paths.add(Guardian.IMAGE_FILE);
+        paths.add(Enemy.IMAGE_FILE);
+        paths.add(Projectile.IMAGE_FILE);
+    }
+
+    /**
+     * Set the event stream, which also receives the notes enemies steal
+     *
+     * @param events The event stream
+     */
+    @Override
+    public void setEvents(GameEventStream events) {
+        super.setEvents(events);
+        noteIndex.setEvents(events);
     }
 
     /**
@@ -30,29 +97,97 @@ public class Level3 extends Levels {
      * @param accuracy The accuracy manager
      */
     @Override
-    public void update(Input input, Accuracy accuracy) {
+    public void update(InputSource input, Accuracy accuracy) {
         super.update(input, accuracy); // Call the update method of the superclass
-        guardian.render();
+
+        // Drop entities that died last frame so they are not iterated again
+        enemies.compact();
+        projectiles.compact();
 
         // Creating enemy every 600 frame
-        if (ShadowDance.getCurrFrame() % ENEMY_CREATION_RATE == 0) {
-            enemies.add(new Enemy());
+        if (getCurrFrame() % ENEMY_CREATION_RATE == 0) {
+            enemies.spawn().reset(random);
         }
 
         // Create projectile
         if (input.wasPressed(Keys.LEFT_SHIFT)){
-            if (haveEnemies(enemies)){
-                projectiles.add(new Projectile(guardian, enemies));
+            if (haveEnemies(enemies.getLive())){
+                projectiles.spawn().reset(guardian, enemies.getLive());
             }
         }
 
-        for (Projectile projectile: projectiles){
-            projectile.update(enemies);
+        FrameProfiler.begin(FrameProfiler.PROJECTILE_UPDATE);
+        for (int i = 0; i < projectiles.getLiveCount(); i++) {
+            if (projectiles.get(i).update(enemies.getLive()) && getEvents() != null) {
+                getEvents().enemyKilled();
+            }
+        }
+        FrameProfiler.end(FrameProfiler.PROJECTILE_UPDATE);
+
+        FrameProfiler.begin(FrameProfiler.ENEMY_UPDATE);
+        noteIndex.rebuild(getLanes());
+        for (int i = 0; i < enemies.getLiveCount(); i++) {
+            enemies.get(i).update(noteIndex);
+        }
+        FrameProfiler.end(FrameProfiler.ENEMY_UPDATE);
+    }
+
+    /**
+     * Draws the lanes, the guardian and the active projectiles and enemies
+     *
+     * @param renderer The renderer to draw with
+     * @param alpha    How far rendering is between the last two simulation steps
+     */
+    @Override
+    public void draw(Renderer renderer, double alpha) {
+        super.draw(renderer, alpha);
+        FrameProfiler.begin(FrameProfiler.ENTITY_DRAW);
+        guardian.render(renderer);
+
+        for (int i = 0; i < projectiles.getLiveCount(); i++) {
+            projectiles.get(i).draw(renderer, alpha);
+        }
+
+        for (int i = 0; i < enemies.getLiveCount(); i++) {
+            enemies.get(i).draw(renderer, alpha);
         }
+        FrameProfiler.end(FrameProfiler.ENTITY_DRAW);
+    }
 
-        for (Enemy enemy : enemies) {
-            enemy.update(getLanes());
+    /**
+     * Get the manager holding the level's enemies
+     *
+     * @return The enemy manager
+     */
+    public EntityManager<Enemy> getEnemies() {
+        return enemies;
+    }
+
+    /**
+     * Get the manager holding the guardian's projectiles
+     *
+     * @return The projectile manager
+     */
+    public EntityManager<Projectile> getProjectiles() {
+        return projectiles;
+    }
+
+    /**
+     * Check if there are active enemies and no active projectile on its way to them
+     *
+     * @return True if a projectile shot now can hit an enemy
+     */
+    @Override
+    public boolean hasShotTarget() {
+        if (!haveEnemies(enemies.getLive())) {
+            return false;
+        }
+        for (int i = 0; i < projectiles.getLiveCount(); i++) {
+            if (projectiles.get(i).isActive()) {
+                return false;
+            }
         }
+        return true;
     }
 
     /**
@@ -65,8 +200,8 @@ public class Level3 extends Levels {
         if (enemies.isEmpty()){
             return false;
         }
-        for (Enemy enemy : enemies) {
-            if (enemy.isActive()) {
+        for (int i = 0; i < enemies.size(); i++) {
+            if (enemies.get(i).isActive()) {
                 return true;
             }
         }
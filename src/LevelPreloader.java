@@ -0,0 +1,126 @@
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Builds levels on a background thread while the title screen is shown, so selecting a level does
+ * not parse its chart on the render thread. Textures can only be uploaded on the render thread,
+ * so the preloader queues their paths and the game loads a few of them each frame. A level whose
+ * chart cannot be read is reported when it is taken.
+ */
+public class LevelPreloader {
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "level-preloader");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<String, Callable<Levels>> factories = new ConcurrentHashMap<>();
+    private final Map<String, Future<Levels>> pending = new ConcurrentHashMap<>();
+    private final Queue<String> textures = new ConcurrentLinkedQueue<>();
+    private final Set<String> knownTextures = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger scheduledTasks = new AtomicInteger();
+    private final AtomicInteger completedTasks = new AtomicInteger();
+
+    /**
+     * Start building a level in the background, and build a fresh copy each time it is taken
+     *
+     * @param name    The name the level is selected by
+     * @param factory Creates the level, and may throw if its chart cannot be read
+     */
+    public void preload(String name, Callable<Levels> factory) {
+        factories.put(name, factory);
+        submit(name);
+    }
+
+    private void submit(String name) {
+        Callable<Levels> factory = factories.get(name);
+        scheduledTasks.incrementAndGet();
+        pending.put(name, executor.submit(() -> {
+            try {
+                Levels level = factory.call();
+                Set<String> paths = new HashSet<>();
+                level.collectImagePaths(paths);
+                for (String path : paths) {
+                    if (knownTextures.add(path)) {
+                        queueTexture(path);
+                    }
+                }
+                return level;
+            } finally {
+                // a level that failed to build is done too, or loading would never finish
+                completedTasks.incrementAndGet();
+            }
+        }));
+    }
+
+    private void queueTexture(String path) {
+        scheduledTasks.incrementAndGet();
+        textures.add(path);
+    }
+
+    /**
+     * Get a preloaded level, waiting for it only if it is still being built. The level's music is
+     * opened in the background, and another copy is built for the next time the level is selected.
+     *
+     * @param name The name the level was preloaded with
+     * @return The level, or null if it could not be built, in which case the error has been reported
+     */
+    public Levels take(String name) {
+        Levels level;
+        try {
+            level = pending.remove(name).get();
+        } catch (ExecutionException e) {
+            System.err.println("error: level " + name + ": " + e.getCause().getMessage());
+            level = null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            level = null;
+        }
+        if (level != null) {
+            executor.submit(level::getTrack);
+        }
+        submit(name);
+        return level;
+    }
+
+    /**
+     * Load up to a number of queued textures, called from the render thread
+     *
+     * @param budget The most textures to load this frame
+     */
+    public void uploadTextures(int budget) {
+        String path;
+        for (int i = 0; i < budget && (path = textures.poll()) != null; i++) {
+            ImageCache.preload(path);
+            completedTasks.incrementAndGet();
+        }
+    }
+
+    /**
+     * Get how much of the preloading work is done
+     *
+     * @return The fraction of tasks completed, from 0 to 1
+     */
+    public double getProgress() {
+        int scheduled = scheduledTasks.get();
+        return (scheduled == 0) ? 1 : (double) completedTasks.get() / scheduled;
+    }
+
+    /**
+     * Check if every level and texture is loaded
+     *
+     * @return True if nothing is left to load
+     */
+    public boolean isDone() {
+        return completedTasks.get() >= scheduledTasks.get();
+    }
+}
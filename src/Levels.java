@@ -1,14 +1,16 @@
-import bagel.Input;
-
-import java.io.BufferedReader;
-import java.io.FileReader;
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 public abstract class Levels {
     private final static int DEFAULT_SPEED = 2;
     private final static int DEFAULT_SCORE_MULTIPLIER = 1;
-    private final Track track;
+    private final String trackFile;
+    private Track track = null;
+    private FrameClock clock = null;
+    private GameEventStream events = null;
     private final int clearScore;
     private int speedEffect = DEFAULT_SPEED;
     private int scoreMultiplier = DEFAULT_SCORE_MULTIPLIER;
@@ -24,64 +26,182 @@ public abstract class Levels {
      */
     public Levels(int clearScore, String trackFile) {
         this.clearScore = clearScore;
-        this.track = new Track(trackFile);
+        this.trackFile = trackFile;
     }
 
     /**
-     * Read a CSV file to initialize game elements such as lanes and notes
+     * Read a chart to initialize game elements such as lanes and notes, using its compiled form
+     * when one is present and at least as new as the CSV
      *
-     * @param filePath The file path to the CSV file
+     * @param csvFile The file path to the CSV file
+     * @throws IOException          If the CSV cannot be read
+     * @throws ChartFormatException If the CSV is not a valid chart
      */
-    public void readCSV(String filePath) {
-        try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
-            String textRead;
-            while ((textRead = br.readLine()) != null) {
-                String[] splitText = textRead.split(",");
-
-                if (splitText[0].equals("Lane")) {
-                    // reading lanes
-                    String laneType = splitText[1];
-                    int pos = Integer.parseInt(splitText[2]);
-                    Lane lane = new Lane(laneType, pos);
-                    lanes.add(lane);
-                } else {
-                    // reading notes
-                    String dir = splitText[0];
-                    Lane lane = null;
-                    for (Lane existingLane : lanes) {
-                        if (existingLane.getType().equals(dir)) {
-                            lane = existingLane;
-                            break;
-                        }
-                    }
-
-                    if (lane != null) {
-                        String noteType = splitText[1];
-                        if (noteType.equals("DoubleScore")) {
-                            noteType = "2x";
-                        }
-                        if ("Normal".equals(noteType) || "Hold".equals(noteType)) {
-                            Note note = ("Normal".equals(noteType))
-                                    ? new NormalNote(dir, Integer.parseInt(splitText[2]))
-                                    : new HoldNote(dir, Integer.parseInt(splitText[2]));
-                            lane.addNote(note);
-
-                        } else if ("SpeedUp".equals(noteType) || "SlowDown".equals(noteType)
-                                || "Bomb".equals(noteType) || "2x".equals(noteType)) {
-                            // Handle SpeedUp, SlowDown, Bomb, DoubleScore
-                            Note note = new SpecialNote(noteType, Integer.parseInt(splitText[2]));
-                            lane.addNote(note);
-                        }
-                    }
-
-                }
+    public void readChart(String csvFile) throws IOException, ChartFormatException {
+        ChartSource chart = openCompiledChart(csvFile);
+        if (chart != null) {
+            try {
+                addChart(chart);
+                return;
+            } catch (ChartFormatException e) {
+                // a damaged compiled chart is not fatal, the CSV is still there
+                e.printStackTrace();
             }
+        }
+        readCSV(csvFile);
+    }
+
+    /**
+     * Read a chart's lanes, streaming each lane's notes from the chart as the level plays instead of
+     * creating them all up front. Memory then depends on how dense the chart is rather than how long.
+     *
+     * @param csvFile         The file path to the CSV file
+     * @param lookAheadFrames How many frames before its appearance a note is created
+     * @throws IOException          If the chart cannot be read
+     * @throws ChartFormatException If the chart is not valid or has a lane of unknown type
+     */
+    public void streamChart(String csvFile, int lookAheadFrames) throws IOException, ChartFormatException {
+        ChartSource chart = openCompiledChart(csvFile);
+        if (chart == null) {
+            chart = readLenient(csvFile);
+        }
+
+        for (int i = 0; i < chart.getLaneCount(); i++) {
+            LaneDirection direction = getDirection(chart, i);
+            NoteLane lane = new NoteLane(direction, chart.getLaneLocation(i));
+            lane.getScheduler().setStream(new ChartNoteStream(chart, i, direction), lookAheadFrames);
+            lanes.add(lane);
+        }
+    }
+
+    /**
+     * Resolve the type of a chart's lane
+     */
+    private static LaneDirection getDirection(ChartSource chart, int lane) throws ChartFormatException {
+        LaneDirection direction = LaneDirection.fromTypeName(chart.getLaneType(lane));
+        if (direction == null) {
+            throw new ChartFormatException("chart", "unknown lane type " + chart.getLaneType(lane));
+        }
+        return direction;
+    }
+
+    /**
+     * Open the compiled form of a chart if it is present and at least as new as the CSV
+     *
+     * @return The compiled chart, or null if the CSV has to be read instead
+     */
+    private static ChartSource openCompiledChart(String csvFile) {
+        File binaryFile = new File(ChartFormat.binaryPath(csvFile));
+        if (!binaryFile.isFile() || binaryFile.lastModified() < new File(csvFile).lastModified()) {
+            return null;
+        }
+        try {
+            return BinaryChart.open(binaryFile.getPath());
         } catch (Exception e) {
+            // a stale or damaged compiled chart is not fatal, the CSV is still there
             e.printStackTrace();
-            System.exit(-1);
+            return null;
+        }
+    }
+
+    /**
+     * Read a CSV file to initialize game elements such as lanes and notes
+     *
+     * @param filePath The file path to the CSV file
+     * @throws IOException          If the file cannot be read
+     * @throws ChartFormatException If the file is not a valid chart
+     */
+    public void readCSV(String filePath) throws IOException, ChartFormatException {
+        addChart(readLenient(filePath));
+    }
+
+    /**
+     * Parse a CSV chart the way the game always has, reporting the lines it drops
+     */
+    private static CsvChart readLenient(String filePath) throws IOException, ChartFormatException {
+        CsvChart chart = CsvChart.read(filePath, false);
+        for (String warning : chart.getWarnings()) {
+            System.err.println(warning);
+        }
+        return chart;
+    }
+
+    /**
+     * Read a chart's lanes as {@link PackedLane}s, which hold their notes in primitive arrays
+     * rather than note objects, for charts too long to keep as objects
+     *
+     * @param csvFile The file path to the CSV file
+     * @throws IOException          If the chart cannot be read
+     * @throws ChartFormatException If the chart is not valid
+     */
+    public void packChart(String csvFile) throws IOException, ChartFormatException {
+        ChartSource chart = openCompiledChart(csvFile);
+        if (chart == null) {
+            chart = readLenient(csvFile);
+        }
+        addChart(chart, true);
+    }
+
+    /**
+     * Create the lanes and notes of a chart. Nothing is added to the level if a record is invalid.
+     *
+     * @param chart The chart to add
+     * @throws ChartFormatException If a lane, or a note's lane or type, does not exist
+     */
+    public void addChart(ChartSource chart) throws ChartFormatException {
+        addChart(chart, false);
+    }
+
+    /**
+     * Create the lanes and notes of a chart, as note objects or packed into arrays
+     */
+    private void addChart(ChartSource chart, boolean packed) throws ChartFormatException {
+        int[] noteCounts = new int[chart.getLaneCount()];
+        for (int i = 0; i < chart.getNoteCount(); i++) {
+            int laneIndex = chart.getNoteLane(i);
+            if (laneIndex >= noteCounts.length || NoteKind.fromCode(chart.getNoteType(i)) == null) {
+                throw new ChartFormatException("chart", "invalid note record " + i);
+            }
+            noteCounts[laneIndex]++;
+        }
+
+        List<Lane> chartLanes = new ArrayList<>(chart.getLaneCount());
+        for (int i = 0; i < chart.getLaneCount(); i++) {
+            LaneDirection direction = getDirection(chart, i);
+            chartLanes.add(packed ? new PackedLane(direction, chart.getLaneLocation(i), noteCounts[i])
+                    : new NoteLane(direction, chart.getLaneLocation(i)));
+        }
+
+        for (int i = 0; i < chart.getNoteCount(); i++) {
+            chartLanes.get(chart.getNoteLane(i)).addNote(NoteKind.fromCode(chart.getNoteType(i)), chart.getNoteFrame(i));
+        }
+        lanes.addAll(chartLanes);
+    }
+
+    /**
+     * Add every image the level draws, so they can be loaded before it starts
+     *
+     * @param paths The set of image paths to add to
+     */
+    public void collectImagePaths(Set<String> paths) {
+        for (int i = 0; i < lanes.size(); i++) {
+            lanes.get(i).collectImagePaths(paths);
         }
     }
 
+    /**
+     * Get the number of notes currently held by the lanes
+     *
+     * @return The resident note count
+     */
+    public int getResidentNoteCount() {
+        int count = 0;
+        for (int i = 0; i < lanes.size(); i++) {
+            count += lanes.get(i).getResidentCount();
+        }
+        return count;
+    }
+
     /**
      * Get the list of lanes in the level
      *
@@ -92,14 +212,93 @@ public abstract class Levels {
     }
 
     /**
-     * Get the track associated with the level
+     * Get the track associated with the level, opening it on first use so that
+     * headless runs never touch the audio device
      *
      * @return The game track
      */
-    public Track getTrack() {
+    public synchronized Track getTrack() {
+        if (track == null) {
+            track = new Track(trackFile);
+        }
         return track;
     }
 
+    /**
+     * Stop the level's music if it was ever opened
+     */
+    public synchronized void closeTrack() {
+        if (track != null) {
+            track.close();
+            track = null;
+        }
+    }
+
+    /**
+     * Set the clock that drives the level's chart position
+     *
+     * @param clock The frame clock
+     */
+    public void setClock(FrameClock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Set the stream the level publishes gameplay events to
+     *
+     * @param events The event stream
+     */
+    public void setEvents(GameEventStream events) {
+        this.events = events;
+    }
+
+    /**
+     * Get the stream the level publishes gameplay events to
+     *
+     * @return The event stream, or null if the level is not being simulated
+     */
+    public GameEventStream getEvents() {
+        return events;
+    }
+
+    /**
+     * Get the current frame of the chart
+     *
+     * @return The current frame number
+     */
+    public int getCurrFrame() {
+        return clock.getCurrFrame();
+    }
+
+    /**
+     * Get the seed the level's random choices come from, which is 0 for levels without randomness
+     *
+     * @return The seed
+     */
+    public long getSeed() {
+        return 0;
+    }
+
+    /**
+     * Check if the level's lanes only interact through its speed, score multiplier and score, so
+     * they can be played apart from each other
+     *
+     * @return True for levels without anything that reaches across lanes
+     */
+    public boolean hasIndependentLanes() {
+        return true;
+    }
+
+    /**
+     * Check if the level has something for the player to shoot at with the left shift key and no
+     * shot already on its way, so a bot knows when to shoot
+     *
+     * @return True if a shot now can hit something
+     */
+    public boolean hasShotTarget() {
+        return false;
+    }
+
     /**
      * Get the score required to clear the level
      *
@@ -187,23 +386,52 @@ public abstract class Levels {
      * @param input    The game input
      * @param accuracy The accuracy manager
      */
-    public void update(Input input, Accuracy accuracy) {
-        for (Lane lane : getLanes()) {
+    public void update(InputSource input, Accuracy accuracy) {
+        FrameProfiler.begin(FrameProfiler.LANE_UPDATE);
+        long transitions = collectTransitions(input);
+        for (int i = 0; i < lanes.size(); i++) {
+            Lane lane = lanes.get(i);
             if (lane != null) {
-                addScore(lane.update(input, accuracy, this));
+                boolean keyChanged = i >= Long.SIZE || (transitions & (1L << i)) != 0;
+                addScore(lane.update(input, accuracy, this, keyChanged));
+            }
+        }
+        FrameProfiler.end(FrameProfiler.LANE_UPDATE);
+    }
+
+    /**
+     * Collect which lanes had their key pressed or released this step, as one bit per lane. Lanes
+     * past the bits of a long are always treated as changed, which only costs them the fast path.
+     *
+     * @param input The game input
+     * @return The bit mask, where bit i is set if the key of lane i changed
+     */
+    private long collectTransitions(InputSource input) {
+        long transitions = 0;
+        for (int i = 0; i < lanes.size() && i < Long.SIZE; i++) {
+            Lane lane = lanes.get(i);
+            if (lane != null && (input.wasPressed(lane.getKey()) || input.wasReleased(lane.getKey()))) {
+                transitions |= 1L << i;
             }
         }
+        return transitions;
     }
 
     /**
-     * Pauses the game
+     * Draws the lanes and their notes
+     *
+     * @param renderer The renderer to draw with
+     * @param alpha    How far rendering is between the last two simulation steps
      */
-    public void pause() {
-        for (Lane lane : getLanes()) {
+    public void draw(Renderer renderer, double alpha) {
+        FrameProfiler.begin(FrameProfiler.LANE_DRAW);
+        for (int i = 0; i < lanes.size(); i++) {
+            Lane lane = lanes.get(i);
             if (lane != null) {
-                lane.draw();
+                lane.draw(renderer, alpha);
             }
         }
+        FrameProfiler.end(FrameProfiler.LANE_DRAW);
     }
 
     /**
@@ -211,7 +439,8 @@ public abstract class Levels {
      * @return True if game is finished
      */
     public boolean checkFinished() {
-        for (Lane lane : getLanes()) {
+        for (int i = 0; i < lanes.size(); i++) {
+            Lane lane = lanes.get(i);
             if (lane != null && !lane.isFinished()) {
                 return false;
             }
@@ -1,4 +1,4 @@
-import bagel.*;
+import bagel.Keys;
 
 /**
  * Class for normal notes
@@ -8,11 +8,22 @@ public class NormalNote extends Note {
     /**
      * Constructor for creating a normal note with a specified direction and appearance frame
      *
-     * @param dir            The direction of the note
+     * @param direction      The lane the note falls down
      * @param appearanceFrame The frame at which the note appears
      */
-    public NormalNote(String dir, int appearanceFrame) {
-        super(dir, appearanceFrame, DEFAULT_INITIAL_Y);
+    public NormalNote(LaneDirection direction, int appearanceFrame) {
+        this(NoteKind.NORMAL, direction.getTypeName(), appearanceFrame);
+    }
+
+    /**
+     * Constructor for notes that are played like a normal note
+     *
+     * @param kind           The kind of note
+     * @param dir            The directory of the image resource
+     * @param appearanceFrame The frame at which the note appears
+     */
+    protected NormalNote(NoteKind kind, String dir, int appearanceFrame) {
+        super(kind, dir, appearanceFrame, DEFAULT_INITIAL_Y);
     }
 
     /**
@@ -23,10 +34,12 @@ public class NormalNote extends Note {
      * @param relevantKey The relevant key to press/release
      * @return The score based on the accuracy of the note press
      */
-    public int checkScore(Input input, Accuracy accuracy, int targetHeight, Keys relevantKey) {
+    public int checkScore(InputSource input, Accuracy accuracy, int targetHeight, Keys relevantKey) {
         if (isActive()) {
-            // evaluate accuracy of the key press
-            int score = accuracy.evaluateScore(y, targetHeight, input.wasPressed(relevantKey), isStolen());
+            // evaluate accuracy of the key press where the note was when the key went down
+            boolean pressed = input.wasPressed(relevantKey);
+            double height = pressed ? heightAt(y, input.getPressOffset(relevantKey)) : y;
+            int score = accuracy.evaluateScore(height, targetHeight, pressed, isStolen());
 
             if (score != Accuracy.NOT_SCORED) {
                 deactivate();
@@ -1,15 +1,16 @@
-import bagel.Image;
-import bagel.Input;
 import bagel.Keys;
 
 /**
  * Abstract parent class for notes
  */
 public abstract class Note {
-    private final Image image;
+    private final NoteKind kind;
+    private final String imagePath;
     private final int appearanceFrame;
 
     protected int y;
+    private int previousY;
+    private int lastMove = 0;
     protected boolean active = false;
     protected boolean completed = false;
     private boolean isStolen = false;
@@ -17,14 +18,47 @@ public abstract class Note {
     /**
      * Constructor for Note
      *
+     * @param kind           The kind of note
      * @param dir            The directory of the image resource
      * @param appearanceFrame The frame at which the note should appear
      * @param initialY       The initial vertical position of the note
      */
-    public Note(String dir, int appearanceFrame, int initialY) {
-        image = new Image("res/" + getImageResourcePrefix() + dir + ".png");
+    public Note(NoteKind kind, String dir, int appearanceFrame, int initialY) {
+        this.kind = kind;
+        imagePath = "res/" + getImageResourcePrefix() + dir + ".png";
         this.appearanceFrame = appearanceFrame;
         y = initialY;
+        previousY = initialY;
+    }
+
+    /**
+     * Get the kind of note, which decides how it is played and what it does when hit
+     *
+     * @return The note kind
+     */
+    public NoteKind getKind() {
+        return kind;
+    }
+
+    /**
+     * Get the image the note is drawn with
+     *
+     * @return The file path to the image
+     */
+    public String getImagePath() {
+        return imagePath;
+    }
+
+    /**
+     * Get where a part of the note was when a key changed between the previous step and this one,
+     * by moving it back along the distance it fell this step
+     *
+     * @param height The height of the part of the note at this step
+     * @param offset How long before this step the key changed, in 1/{@link InputSource#SUB_STEPS} of a step
+     * @return The height at the time of the key change
+     */
+    protected double heightAt(int height, int offset) {
+        return height - (double) lastMove * offset / InputSource.SUB_STEPS;
     }
 
     /**
@@ -78,17 +112,30 @@ public abstract class Note {
         completed = true;
     }
 
+    /**
+     * Gets the frame at which the note appears.
+     *
+     * @return The appearance frame of the note.
+     */
+    public int getAppearanceFrame() {
+        return appearanceFrame;
+    }
+
     /**
      * Updates the note's position and activation status.
      *
-     * @param s The speed at which the note should move.
+     * @param currFrame The current frame of the chart.
+     * @param s         The speed at which the note should move.
      */
-    public void update(int s) {
+    public void update(int currFrame, int s) {
+        previousY = y;
+        lastMove = 0;
         if (active) {
             y += s;
+            lastMove = s;
         }
 
-        if (ShadowDance.getCurrFrame() >= appearanceFrame && !completed) {
+        if (currFrame >= appearanceFrame && !completed) {
             active = true;
         }
     }
@@ -96,11 +143,13 @@ public abstract class Note {
     /**
      * Draws the note on the screen if it is active.
      *
-     * @param x The horizontal position at which to draw the note.
+     * @param renderer The renderer to draw with.
+     * @param x        The horizontal position at which to draw the note.
+     * @param alpha    How far rendering is between the last two simulation steps.
      */
-    public void draw(int x) {
+    public void draw(Renderer renderer, int x, double alpha) {
         if (active) {
-            image.draw(x, y);
+            renderer.drawImage(imagePath, x, Playfield.interpolate(previousY, y, alpha));
         }
     }
 
@@ -113,7 +162,17 @@ public abstract class Note {
      * @param relevantKey  The relevant key that was pressed.
      * @return The evaluated score for the note.
      */
-    public abstract int checkScore(Input input, Accuracy accuracy, int targetHeight, Keys relevantKey);
+    public abstract int checkScore(InputSource input, Accuracy accuracy, int targetHeight, Keys relevantKey);
+
+    /**
+     * Checks for the effect the note starts now that it is completed, announcing it if there is one.
+     *
+     * @param accuracy The accuracy evaluator for setting the effect description.
+     * @return The effect, or null if the note has none.
+     */
+    public SpecialEffect checkEffect(Accuracy accuracy) {
+        return null;
+    }
 
     /**
      * Get the image resource prefix for the specific note type.
@@ -0,0 +1,135 @@
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Broadphase index over the notes enemies can steal. Each lane keeps its active normal notes
+ * sorted by height, so a collision query only visits lanes and heights within the radius.
+ */
+public class NoteCollisionIndex {
+    private static final int INITIAL_LANES = 4;
+    private static final int INITIAL_NOTES = 16;
+
+    private int laneCount = 0;
+    private Lane[] indexedLanes = new Lane[INITIAL_LANES];
+    private int[] laneLocations = new int[INITIAL_LANES];
+    private int[] laneSizes = new int[INITIAL_LANES];
+    private int[][] laneHeights = new int[INITIAL_LANES][INITIAL_NOTES];
+    private int[][] laneNotes = new int[INITIAL_LANES][INITIAL_NOTES];
+    private GameEventStream events = null;
+
+    /**
+     * Set the stream that newly stolen notes are published to
+     *
+     * @param events The event stream
+     */
+    public void setEvents(GameEventStream events) {
+        this.events = events;
+    }
+
+    /**
+     * Rebuild the index from the notes currently on screen, called once per frame before enemies move
+     *
+     * @param lanes The lanes of the level
+     */
+    public void rebuild(List<Lane> lanes) {
+        ensureLanes(lanes.size());
+        laneCount = lanes.size();
+        for (int l = 0; l < laneCount; l++) {
+            Lane lane = lanes.get(l);
+            indexedLanes[l] = lane;
+            laneLocations[l] = lane.getLocation();
+            laneSizes[l] = 0;
+
+            // later notes are higher up, so walking the window backwards is already close to ascending height
+            for (int i = lane.getWindowEnd() - 1; i >= lane.getWindowStart(); i--) {
+                if (lane.isNoteActive(i) && lane.getNoteKind(i) == NoteKind.NORMAL) {
+                    insert(l, i, lane.getNoteY(i));
+                }
+            }
+        }
+    }
+
+    /**
+     * Mark every indexed note within a radius of a point as stolen
+     *
+     * @param x      The horizontal position of the point
+     * @param y      The vertical position of the point
+     * @param radius The collision radius
+     */
+    public void stealNotes(double x, double y, double radius) {
+        for (int l = 0; l < laneCount; l++) {
+            int location = laneLocations[l];
+            if (Math.abs(location - x) > radius) {
+                continue;
+            }
+            Lane lane = indexedLanes[l];
+            int[] heights = laneHeights[l];
+            int[] notes = laneNotes[l];
+            int size = laneSizes[l];
+            for (int i = lowerBound(heights, size, y - radius); i < size && heights[i] <= y + radius; i++) {
+                if (Accuracy.detectCollision(location, heights[i], x, y, radius)) {
+                    if (!lane.isNoteStolen(notes[i]) && events != null) {
+                        events.noteStolen(lane.getDirection());
+                    }
+                    lane.stealNote(notes[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Insert a note, by its index in the lane, into the lane's entries keeping heights ascending
+     */
+    private void insert(int lane, int note, int height) {
+        int size = laneSizes[lane];
+        if (size == laneHeights[lane].length) {
+            laneHeights[lane] = Arrays.copyOf(laneHeights[lane], size * 2);
+            laneNotes[lane] = Arrays.copyOf(laneNotes[lane], size * 2);
+        }
+        int[] heights = laneHeights[lane];
+        int[] notes = laneNotes[lane];
+        int i = size;
+        while (i > 0 && heights[i - 1] > height) {
+            heights[i] = heights[i - 1];
+            notes[i] = notes[i - 1];
+            i--;
+        }
+        heights[i] = height;
+        notes[i] = note;
+        laneSizes[lane] = size + 1;
+    }
+
+    /**
+     * Find the first index whose height is at least the given value
+     */
+    private static int lowerBound(int[] heights, int size, double value) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (heights[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void ensureLanes(int count) {
+        if (count <= laneLocations.length) {
+            return;
+        }
+        indexedLanes = Arrays.copyOf(indexedLanes, count);
+        laneLocations = Arrays.copyOf(laneLocations, count);
+        laneSizes = Arrays.copyOf(laneSizes, count);
+        laneHeights = Arrays.copyOf(laneHeights, count);
+        laneNotes = Arrays.copyOf(laneNotes, count);
+        for (int l = 0; l < count; l++) {
+            if (laneHeights[l] == null) {
+                laneHeights[l] = new int[INITIAL_NOTES];
+                laneNotes[l] = new int[INITIAL_NOTES];
+            }
+        }
+    }
+}
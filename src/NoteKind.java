@@ -0,0 +1,85 @@
+/**
+ * The kinds of note a chart can contain, with the type code each is stored as in compiled charts
+ */
+public enum NoteKind {
+    NORMAL(ChartFormat.NORMAL, "Normal", null),
+    HOLD(ChartFormat.HOLD, "Hold", null),
+    SPEED_UP(ChartFormat.SPEED_UP, "SpeedUp", SpecialEffect.SPEED_UP),
+    SLOW_DOWN(ChartFormat.SLOW_DOWN, "SlowDown", SpecialEffect.SLOW_DOWN),
+    BOMB(ChartFormat.BOMB, "Bomb", SpecialEffect.BOMB),
+    DOUBLE_SCORE(ChartFormat.DOUBLE_SCORE, "2x", SpecialEffect.DOUBLE_SCORE);
+
+    private static final String DOUBLE_SCORE_ALIAS = "DoubleScore";
+    private static final NoteKind[] BY_CODE = new NoteKind[values().length];
+
+    static {
+        for (NoteKind kind : values()) {
+            BY_CODE[kind.code] = kind;
+        }
+    }
+
+    private final int code;
+    private final String typeName;
+    private final SpecialEffect effect;
+
+    NoteKind(int code, String typeName, SpecialEffect effect) {
+        this.code = code;
+        this.typeName = typeName;
+        this.effect = effect;
+    }
+
+    /**
+     * Get the code the kind is stored as in compiled charts
+     *
+     * @return The type code
+     */
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * Get the name the kind has in charts
+     *
+     * @return The note type name, such as "Hold"
+     */
+    public String getTypeName() {
+        return typeName;
+    }
+
+    /**
+     * Get the effect a special note starts
+     *
+     * @return The effect, or null if the kind is not a special note
+     */
+    public SpecialEffect getEffect() {
+        return effect;
+    }
+
+    /**
+     * Find the kind stored as a type code
+     *
+     * @param code The type code
+     * @return The kind, or null if the code is unknown
+     */
+    public static NoteKind fromCode(int code) {
+        return (code >= 0 && code < BY_CODE.length) ? BY_CODE[code] : null;
+    }
+
+    /**
+     * Find the kind for a note type name from a chart
+     *
+     * @param typeName The note type name, where "DoubleScore" is accepted for "2x"
+     * @return The kind, or null if the name is unknown
+     */
+    public static NoteKind fromTypeName(String typeName) {
+        if (typeName.equals(DOUBLE_SCORE_ALIAS)) {
+            return DOUBLE_SCORE;
+        }
+        for (NoteKind kind : values()) {
+            if (kind.typeName.equals(typeName)) {
+                return kind;
+            }
+        }
+        return null;
+    }
+}
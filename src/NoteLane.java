@@ -0,0 +1,140 @@
+import java.util.Set;
+
+/**
+ * A lane that holds its notes as note objects, scheduled by appearance frame. Its notes can be
+ * streamed from a chart as the level plays instead of all being held.
+ */
+public class NoteLane extends Lane {
+    private final NoteScheduler notes = new NoteScheduler();
+
+    /**
+     * Constructor for creating a game lane
+     *
+     * @param direction The type of lane
+     * @param location  The x position of the lane
+     */
+    public NoteLane(LaneDirection direction, int location) {
+        super(direction, location);
+    }
+
+    /**
+     * Get the scheduler holding the lane's notes in appearance order
+     *
+     * @return The note scheduler
+     */
+    public NoteScheduler getScheduler() {return notes;}
+
+    @Override
+    public int getResidentCount() {return notes.getResidentCount();}
+
+    @Override
+    public int getResidentEnd() {return notes.getResidentEnd();}
+
+    @Override
+    public int getWindowStart() {return notes.getWindowStart();}
+
+    @Override
+    public int getWindowEnd() {return notes.getWindowEnd();}
+
+    @Override
+    public NoteKind getNoteKind(int index) {return notes.get(index).getKind();}
+
+    @Override
+    public int getNoteFrame(int index) {return notes.get(index).getAppearanceFrame();}
+
+    @Override
+    public int getNoteY(int index) {return notes.get(index).getY();}
+
+    @Override
+    public boolean isNoteActive(int index) {return notes.get(index).isActive();}
+
+    @Override
+    public boolean isHoldStarted(int index) {
+        Note note = notes.get(index);
+        return note.getKind() == NoteKind.HOLD && ((HoldNote) note).isHoldStarted();
+    }
+
+    @Override
+    public boolean isNoteStolen(int index) {return notes.get(index).isStolen();}
+
+    @Override
+    public void stealNote(int index) {notes.get(index).setStolen(true);}
+
+    @Override
+    public void collectImagePaths(Set<String> paths) {
+        super.collectImagePaths(paths);
+        for (Note note : notes.getNotes()) {
+            paths.add(note.getImagePath());
+        }
+    }
+
+    /**
+     * A streamed lane is assumed to change the level's shared state, since its notes are not all
+     * known before the level is played
+     *
+     * @return True if the lane can change the level's shared state
+     */
+    @Override
+    public boolean hasLevelEffects() {
+        return notes.isStreamed() || super.hasLevelEffects();
+    }
+
+    @Override
+    public void deactivateAllActiveNotes() {
+        for (int i = notes.getWindowStart(); i < notes.getWindowEnd(); i++) {
+            Note note = notes.get(i);
+            if (note.isActive()) {
+                note.deactivate();
+            }
+        }
+    }
+
+    @Override
+    protected int updateNotes(InputSource input, Accuracy accuracy, Levels level, boolean keyChanged) {
+        notes.advance(level.getCurrFrame());
+        for (int i = notes.getWindowStart(); i < notes.getWindowEnd(); i++) {
+            Note note = notes.get(i);
+            note.update(level.getCurrFrame(), level.getSpeedEffect());
+
+            int score = 0;
+            if (keyChanged || note.getY() + HoldNote.HEIGHT_OFFSET >= Playfield.HEIGHT) {
+                score = note.checkScore(input, accuracy, TARGET_HEIGHT, getKey());
+            }
+
+            if (note.isCompleted()) {
+                applyEffect(note.checkEffect(accuracy), level);
+                notes.completeNext();
+                return score * level.getScoreMultiplier();
+            }
+        }
+        return Accuracy.NOT_SCORED;
+    }
+
+    @Override
+    public void addNote(NoteKind kind, int frame) {
+        addNote(ChartNoteStream.createNote(getDirection(), kind, frame));
+    }
+
+    /**
+     * Add a note to the lane
+     *
+     * @param note The note to be added to the lane
+     */
+    public void addNote(Note note) {
+        notes.add(note);
+    }
+
+    @Override
+    public boolean isFinished() {
+        return notes.isFinished();
+    }
+
+    @Override
+    protected void drawNotes(Renderer renderer, double alpha) {
+        for (int i = notes.getWindowStart(); i < notes.getWindowEnd(); i++) {
+            if(!notes.get(i).isStolen()){
+                notes.get(i).draw(renderer, getLocation(), alpha);
+            }
+        }
+    }
+}
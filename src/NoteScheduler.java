@@ -0,0 +1,168 @@
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Keeps a lane's notes ordered by appearance frame and tracks the window of notes that have
+ * appeared but are not yet finished, so per-frame work only touches notes that are on screen.
+ * <p>
+ * Notes keep the index they were scheduled with. When the lane streams its notes from a chart,
+ * they are created a fixed number of frames before they appear and dropped once they fall behind
+ * the window, so only the notes near the current frame are resident.
+ */
+public class NoteScheduler {
+    private static final Comparator<Note> BY_APPEARANCE = Comparator.comparingInt(Note::getAppearanceFrame);
+    private static final int INITIAL_CAPACITY = 16;
+
+    private Note[] notes = new Note[INITIAL_CAPACITY];
+    private int base = 0;
+    private int size = 0;
+    private boolean sorted = true;
+    private int windowStart = 0;
+    private int windowEnd = 0;
+    private ChartNoteStream stream = null;
+    private int lookAheadFrames = 0;
+
+    /**
+     * Add a note to the schedule
+     *
+     * @param note The note to add
+     */
+    public void add(Note note) {
+        if (size > 0 && notes[size - 1].getAppearanceFrame() > note.getAppearanceFrame()) {
+            sorted = false;
+        }
+        if (size == notes.length) {
+            notes = Arrays.copyOf(notes, size * 2);
+        }
+        notes[size++] = note;
+    }
+
+    /**
+     * Stream notes from a chart instead of holding all of them
+     *
+     * @param stream          The lane's notes in the chart
+     * @param lookAheadFrames How many frames before its appearance a note is created
+     */
+    public void setStream(ChartNoteStream stream, int lookAheadFrames) {
+        this.stream = stream;
+        this.lookAheadFrames = lookAheadFrames;
+    }
+
+    /**
+     * Check if the notes are streamed from a chart rather than all held
+     *
+     * @return True if the notes are streamed
+     */
+    public boolean isStreamed() {
+        return stream != null;
+    }
+
+    /**
+     * Extend the window to every note that has appeared by the current frame
+     *
+     * @param currFrame The current frame of the chart
+     */
+    public void advance(int currFrame) {
+        if (stream != null) {
+            releaseFinished();
+            while (stream.hasNext() && stream.peekFrame() <= currFrame + lookAheadFrames) {
+                add(stream.next());
+            }
+        }
+        if (!sorted) {
+            // stable, so notes sharing a frame keep their chart order
+            Arrays.sort(notes, windowEnd - base, size, BY_APPEARANCE);
+            sorted = true;
+        }
+        while (windowEnd < base + size && notes[windowEnd - base].getAppearanceFrame() <= currFrame) {
+            windowEnd++;
+        }
+    }
+
+    /**
+     * Drop the notes behind the window once they make up at least half of the resident notes,
+     * so each note is moved at most a constant number of times on average
+     */
+    private void releaseFinished() {
+        int finished = windowStart - base;
+        if (finished == 0 || finished < size - finished) {
+            return;
+        }
+        System.arraycopy(notes, finished, notes, 0, size - finished);
+        Arrays.fill(notes, size - finished, size, null);
+        size -= finished;
+        base = windowStart;
+    }
+
+    /**
+     * Move the start of the window past one finished note
+     */
+    public void completeNext() {
+        windowStart++;
+    }
+
+    /**
+     * Get the index of the first note that is not yet finished
+     *
+     * @return The start of the window
+     */
+    public int getWindowStart() {
+        return windowStart;
+    }
+
+    /**
+     * Get the index just past the last note that has appeared
+     *
+     * @return The end of the window
+     */
+    public int getWindowEnd() {
+        return windowEnd;
+    }
+
+    /**
+     * Get a resident note by its index in appearance order
+     *
+     * @param index The index of the note
+     * @return The note
+     */
+    public Note get(int index) {
+        return notes[index - base];
+    }
+
+    /**
+     * Get the resident notes in appearance order, which is every note unless the lane is streamed
+     *
+     * @return The list of notes
+     */
+    public List<Note> getNotes() {
+        return Arrays.asList(notes).subList(0, size);
+    }
+
+    /**
+     * Get the number of notes currently held
+     *
+     * @return The resident note count
+     */
+    public int getResidentCount() {
+        return size;
+    }
+
+    /**
+     * Get the index just past the last note currently held
+     *
+     * @return The end of the resident notes
+     */
+    public int getResidentEnd() {
+        return base + size;
+    }
+
+    /**
+     * Check if every note has been finished
+     *
+     * @return True if no notes remain
+     */
+    public boolean isFinished() {
+        return windowStart >= base + size && (stream == null || !stream.hasNext());
+    }
+}
@@ -0,0 +1,43 @@
+/**
+ * Silent backend for machines without an audio device and for headless runs.
+ * It keeps the playback position with the system clock so anything following the music still advances.
+ */
+public class NullAudioBackend implements AudioBackend {
+    private static final long NANOS_PER_MICRO = 1000;
+
+    private long playedNanos = 0;
+    private long startNanos = 0;
+    private boolean playing = false;
+
+    @Override
+    public void play() {
+        if (!playing) {
+            startNanos = System.nanoTime();
+            playing = true;
+        }
+    }
+
+    @Override
+    public void pause() {
+        if (playing) {
+            playedNanos += System.nanoTime() - startNanos;
+            playing = false;
+        }
+    }
+
+    @Override
+    public long getPositionMicros() {
+        long nanos = playing ? playedNanos + System.nanoTime() - startNanos : playedNanos;
+        return nanos / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public boolean isFinished() {
+        return false;
+    }
+
+    @Override
+    public void close() {
+        pause();
+    }
+}
@@ -0,0 +1,337 @@
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * A lane that keeps its notes in parallel primitive arrays instead of note objects. A note is its
+ * appearance frame, height, kind and a byte of state flags, about a tenth of the heap a note object
+ * takes, and each frame's update is one pass over contiguous arrays. Suited to very long charts.
+ * <p>
+ * Notes are played exactly as the lane's note objects would play them. The one difference is
+ * cosmetic: a note that skipped a step's update, because a note before it finished that step,
+ * is drawn where it is rather than interpolated from an older position.
+ */
+public class PackedLane extends Lane {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final NoteKind[] KINDS = NoteKind.values();
+
+    private static final byte ACTIVE = 1;
+    private static final byte COMPLETED = 1 << 1;
+    private static final byte STOLEN = 1 << 2;
+    private static final byte HOLD_STARTED = 1 << 3;
+    private static final byte MISSED = 1 << 4;
+    private static final byte MOVED = 1 << 5;
+
+    private final String[] imagePaths = new String[KINDS.length];
+    private final int[] initialYs = new int[KINDS.length];
+
+    private int[] frames;
+    private int[] ys;
+    private byte[] kinds;
+    private byte[] states;
+    private int count = 0;
+    private boolean sorted = true;
+    private int windowStart = 0;
+    private int windowEnd = 0;
+    private int updatedEnd = 0;
+    private int lastMove = 0;
+
+    /**
+     * Constructor for a packed lane
+     *
+     * @param direction The type of lane
+     * @param location  The x position of the lane
+     */
+    public PackedLane(LaneDirection direction, int location) {
+        this(direction, location, INITIAL_CAPACITY);
+    }
+
+    /**
+     * Constructor for a packed lane with room for a known number of notes
+     *
+     * @param direction The type of lane
+     * @param location  The x position of the lane
+     * @param capacity  The number of notes the lane will hold
+     */
+    public PackedLane(LaneDirection direction, int location, int capacity) {
+        super(direction, location);
+        frames = new int[capacity];
+        ys = new int[capacity];
+        kinds = new byte[capacity];
+        states = new byte[capacity];
+        for (NoteKind kind : KINDS) {
+            Note prototype = ChartNoteStream.createNote(direction, kind, 0);
+            imagePaths[kind.ordinal()] = prototype.getImagePath();
+            initialYs[kind.ordinal()] = prototype.getY();
+        }
+    }
+
+    @Override
+    public void addNote(NoteKind kind, int frame) {
+        if (count > 0 && frames[count - 1] > frame) {
+            sorted = false;
+        }
+        if (count == frames.length) {
+            int capacity = Math.max(INITIAL_CAPACITY, count * 2);
+            frames = Arrays.copyOf(frames, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            kinds = Arrays.copyOf(kinds, capacity);
+            states = Arrays.copyOf(states, capacity);
+        }
+        frames[count] = frame;
+        ys[count] = initialYs[kind.ordinal()];
+        kinds[count] = (byte) kind.ordinal();
+        states[count] = 0;
+        count++;
+    }
+
+    @Override
+    public void collectImagePaths(Set<String> paths) {
+        super.collectImagePaths(paths);
+        for (int i = 0; i < count; i++) {
+            paths.add(imagePaths[kinds[i]]);
+        }
+    }
+
+    @Override
+    public int getResidentCount() {
+        return count;
+    }
+
+    @Override
+    public int getResidentEnd() {
+        return count;
+    }
+
+    @Override
+    public int getWindowStart() {
+        return windowStart;
+    }
+
+    @Override
+    public int getWindowEnd() {
+        return windowEnd;
+    }
+
+    @Override
+    public NoteKind getNoteKind(int index) {
+        return KINDS[kinds[index]];
+    }
+
+    @Override
+    public int getNoteFrame(int index) {
+        return frames[index];
+    }
+
+    @Override
+    public int getNoteY(int index) {
+        return ys[index];
+    }
+
+    @Override
+    public boolean isNoteActive(int index) {
+        return (states[index] & ACTIVE) != 0;
+    }
+
+    @Override
+    public boolean isHoldStarted(int index) {
+        return (states[index] & HOLD_STARTED) != 0;
+    }
+
+    @Override
+    public boolean isNoteStolen(int index) {
+        return (states[index] & STOLEN) != 0;
+    }
+
+    @Override
+    public void stealNote(int index) {
+        states[index] |= STOLEN;
+    }
+
+    @Override
+    public void deactivateAllActiveNotes() {
+        for (int i = windowStart; i < windowEnd; i++) {
+            if ((states[i] & ACTIVE) != 0) {
+                states[i] = (byte) ((states[i] & ~ACTIVE) | COMPLETED);
+            }
+        }
+    }
+
+    @Override
+    public boolean isFinished() {
+        return windowStart >= count;
+    }
+
+    /**
+     * Update the notes on screen until one of them is finished, in one pass over the arrays. Moving
+     * and activating a note is branchless, and only a key change in this lane or a note falling off
+     * the screen can judge a note, so without either a note costs a few arithmetic operations.
+     *
+     * @param input      The game input
+     * @param accuracy   The accuracy manager
+     * @param level      The game level
+     * @param keyChanged Whether the lane's key was pressed or released this step
+     * @return The score of the finished note, or {@link Accuracy#NOT_SCORED} if none finished
+     */
+    @Override
+    protected int updateNotes(InputSource input, Accuracy accuracy, Levels level, boolean keyChanged) {
+        advance(level.getCurrFrame());
+        int speed = level.getSpeedEffect();
+        lastMove = speed;
+
+        for (int i = windowStart; i < windowEnd; i++) {
+            // the clock never goes back, so every note in the window has appeared, and active notes
+            // are never completed, so a note is active after its move exactly when it is unfinished
+            int state = states[i];
+            int active = state & ACTIVE;
+            int y = ys[i] + (speed & -active);
+            ys[i] = y;
+            state = (state & ~(ACTIVE | MOVED)) | (active * MOVED) | ((~state & COMPLETED) >> 1);
+            states[i] = (byte) state;
+
+            int score = 0;
+            if ((state & ACTIVE) != 0 && (keyChanged || y + HoldNote.HEIGHT_OFFSET >= Playfield.HEIGHT)) {
+                score = (kinds[i] == NoteKind.HOLD.ordinal())
+                        ? judgeHold(i, input, accuracy) : judgeTap(i, input, accuracy);
+                state = states[i];
+            }
+
+            if ((state & COMPLETED) != 0) {
+                updatedEnd = i + 1;
+                SpecialEffect effect = KINDS[kinds[i]].getEffect();
+                if (effect != null && (state & MISSED) == 0) {
+                    accuracy.showEffect(effect);
+                    applyEffect(effect, level);
+                }
+                windowStart++;
+                return score * level.getScoreMultiplier();
+            }
+        }
+        updatedEnd = windowEnd;
+        return Accuracy.NOT_SCORED;
+    }
+
+    /**
+     * Judge a normal or special note, which is played with a single press
+     */
+    private int judgeTap(int i, InputSource input, Accuracy accuracy) {
+        NoteKind kind = KINDS[kinds[i]];
+        boolean stolen = (states[i] & STOLEN) != 0;
+        boolean pressed = input.wasPressed(getKey());
+        double height = pressed ? heightAt(i, ys[i], input.getPressOffset(getKey())) : ys[i];
+        int score = accuracy.evaluateScore(height, TARGET_HEIGHT, pressed, stolen || kind != NoteKind.NORMAL);
+        if (score == Accuracy.NOT_SCORED) {
+            return 0;
+        }
+
+        deactivate(i);
+        if (kind == NoteKind.NORMAL) {
+            return stolen ? 0 : score;
+        }
+        if (score == Accuracy.MISS_SCORE) {
+            // missed special notes are not scored and have no effect
+            states[i] |= MISSED;
+            return 0;
+        }
+        return kind.getEffect().isScored() ? score : 0;
+    }
+
+    /**
+     * Judge a hold note, whose start is pressed and whose end is released
+     */
+    private int judgeHold(int i, InputSource input, Accuracy accuracy) {
+        if ((states[i] & HOLD_STARTED) == 0) {
+            boolean pressed = input.wasPressed(getKey());
+            int bottom = ys[i] + HoldNote.HEIGHT_OFFSET;
+            double height = pressed ? heightAt(i, bottom, input.getPressOffset(getKey())) : bottom;
+            int score = accuracy.evaluateScore(height, TARGET_HEIGHT, pressed, false);
+
+            if (score == Accuracy.MISS_SCORE) {
+                deactivate(i);
+                return score;
+            } else if (score != Accuracy.NOT_SCORED) {
+                states[i] |= HOLD_STARTED;
+                return score;
+            }
+            return 0;
+        }
+
+        boolean released = input.wasReleased(getKey());
+        int top = ys[i] - HoldNote.HEIGHT_OFFSET;
+        double height = released ? heightAt(i, top, input.getReleaseOffset(getKey())) : top;
+        int score = accuracy.evaluateScore(height, TARGET_HEIGHT, released, false);
+
+        if (score != Accuracy.NOT_SCORED) {
+            deactivate(i);
+            return score;
+        } else if (released) {
+            deactivate(i);
+            accuracy.setAccuracy(Judgment.MISS);
+            return Accuracy.MISS_SCORE;
+        }
+        return 0;
+    }
+
+    /**
+     * Get where a part of a note was when a key changed during this step, as {@link Note} does
+     */
+    private double heightAt(int i, int height, int offset) {
+        return height - (double) getMove(i) * offset / InputSource.SUB_STEPS;
+    }
+
+    /**
+     * Get how far a note fell in its last update
+     */
+    private int getMove(int i) {
+        return (states[i] & MOVED) != 0 ? lastMove : 0;
+    }
+
+    private void deactivate(int i) {
+        states[i] = (byte) ((states[i] & ~ACTIVE) | COMPLETED);
+    }
+
+    /**
+     * Extend the window to every note that has appeared by the current frame
+     */
+    private void advance(int currFrame) {
+        if (!sorted) {
+            sortPending();
+        }
+        while (windowEnd < count && frames[windowEnd] <= currFrame) {
+            windowEnd++;
+        }
+    }
+
+    /**
+     * Sort the notes that have not appeared by appearance frame, keeping chart order within a frame
+     */
+    private void sortPending() {
+        int pending = count - windowEnd;
+        long[] keys = new long[pending];
+        for (int i = 0; i < pending; i++) {
+            keys[i] = ((long) frames[windowEnd + i] << Integer.SIZE) | i;
+        }
+        Arrays.sort(keys);
+
+        int[] oldFrames = Arrays.copyOfRange(frames, windowEnd, count);
+        byte[] oldKinds = Arrays.copyOfRange(kinds, windowEnd, count);
+        for (int i = 0; i < pending; i++) {
+            int from = (int) keys[i];
+            frames[windowEnd + i] = oldFrames[from];
+            kinds[windowEnd + i] = oldKinds[from];
+            ys[windowEnd + i] = initialYs[oldKinds[from]];
+            states[windowEnd + i] = 0;
+        }
+        sorted = true;
+    }
+
+    @Override
+    protected void drawNotes(Renderer renderer, double alpha) {
+        for (int i = windowStart; i < windowEnd; i++) {
+            if ((states[i] & (ACTIVE | STOLEN)) == ACTIVE) {
+                // notes after the one that finished this step were not moved, so they are drawn at rest
+                int previousY = (i < updatedEnd) ? ys[i] - getMove(i) : ys[i];
+                renderer.drawImage(imagePaths[kinds[i]], getLocation(), Playfield.interpolate(previousY, ys[i], alpha));
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+/**
+ * Dimensions of the playing area shared by the simulation and the window
+ */
+public class Playfield {
+    public static final int WIDTH = 1024;
+    public static final int HEIGHT = 768;
+
+    private Playfield() {
+    }
+
+    /**
+     * Blend a position between the last two simulation steps for drawing
+     *
+     * @param previous The position after the previous step
+     * @param current  The position after the latest step
+     * @param alpha    How far rendering is between the two steps, from 0 to 1
+     * @return The position to draw at
+     */
+    public static double interpolate(double previous, double current, double alpha) {
+        return previous + (current - previous) * alpha;
+    }
+}
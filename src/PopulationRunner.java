@@ -0,0 +1,198 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Plays levels many times with {@link AutoPlayer}s of each {@link SkillProfile} and reports how their
+ * scores are spread and how often they clear the level, so clear scores can be tuned from data rather
+ * than guessed. Plays run in parallel on the fork-join pool, each with its own seed for the bot's
+ * timing and level 3's enemies, so the same seed always gives the same report.
+ * Usage: PopulationRunner [1|2|3|chart.csv]... [-plays n] [-profiles name,...] [-seed n] [-clear score] [-csv path]
+ */
+public class PopulationRunner {
+    private static final String[] DEFAULT_LEVELS = {"1", "2", "3"};
+    private static final int DEFAULT_PLAYS = 200;
+    private static final int MAX_FRAMES = 1 << 20;
+    private static final double[] PERCENTILES = {0.1, 0.5, 0.9};
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    /**
+     * The plays of one level by bots of one skill
+     */
+    private static class Population {
+        private final String level;
+        private final SkillProfile skill;
+        private final int[] scores;
+        private int clearScore = 0;
+
+        private Population(String level, SkillProfile skill, int plays) {
+            this.level = level;
+            this.skill = skill;
+            this.scores = new int[plays];
+        }
+    }
+
+    /**
+     * Play every play of every population in parallel, each play with its own seed
+     */
+    private static void playAll(Population[] populations, int plays, long seed) {
+        IntStream.range(0, populations.length * plays).parallel()
+                .forEach(i -> play(populations[i / plays], i % plays, seed + i % plays));
+    }
+
+    /**
+     * Play a level once with a bot, recording its score. Every chart has been read once already, so
+     * failing to read one now is a fault of the environment rather than of the chart.
+     */
+    private static void play(Population population, int play, long seed) {
+        Levels level;
+        try {
+            level = Simulation.createLevel(population.level, seed);
+        } catch (IOException | ChartFormatException e) {
+            throw new IllegalStateException("level " + population.level + " could not be read again", e);
+        }
+        Simulation simulation = new Simulation(level);
+        AutoPlayer player = new AutoPlayer(population.skill, seed);
+        while (!simulation.step(player.next(level)) && simulation.getCurrFrame() < MAX_FRAMES) {
+            // play until every lane is finished
+        }
+        population.scores[play] = level.getScore();
+        population.clearScore = level.getClearScore();
+    }
+
+    /**
+     * Print a population's clear rate and score distribution as a row of the report table
+     */
+    private static void printRow(Population population, int clearScore) {
+        int[] scores = population.scores.clone();
+        Arrays.sort(scores);
+        double mean = 0;
+        int clears = 0;
+        for (int score : scores) {
+            mean += score;
+            clears += (score >= clearScore) ? 1 : 0;
+        }
+        mean /= scores.length;
+        double variance = 0;
+        for (int score : scores) {
+            variance += (score - mean) * (score - mean);
+        }
+
+        System.out.printf(Locale.ROOT, "  %-8s %7.1f%% %8.1f %7.1f %6d", population.skill,
+                100.0 * clears / scores.length, mean, Math.sqrt(variance / scores.length), scores[0]);
+        for (double percentile : PERCENTILES) {
+            System.out.printf(" %6d", getPercentile(scores, percentile));
+        }
+        System.out.printf(" %6d%n", scores[scores.length - 1]);
+    }
+
+    /**
+     * Get the score that a share of the sorted scores are at or below
+     */
+    private static int getPercentile(int[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    /**
+     * Write every play's score as a CSV table
+     */
+    private static void writeCsv(String path, Population[] populations, int[] clearScores) throws IOException {
+        try (PrintWriter writer = new PrintWriter(path)) {
+            writer.println("level,profile,play,score,cleared");
+            for (int i = 0; i < populations.length; i++) {
+                Population population = populations[i];
+                for (int play = 0; play < population.scores.length; play++) {
+                    int score = population.scores[play];
+                    writer.printf("%s,%s,%d,%d,%b%n", population.level, population.skill, play, score,
+                            score >= clearScores[i]);
+                }
+            }
+        }
+    }
+
+    private static List<SkillProfile> parseProfiles(String names) {
+        List<SkillProfile> profiles = new ArrayList<>();
+        for (String name : names.split(",")) {
+            profiles.add(SkillProfile.valueOf(name.trim().toUpperCase(Locale.ROOT)));
+        }
+        return profiles;
+    }
+
+    /**
+     * The entry point for the population runner, which plays the three built-in levels if no level is given.
+     */
+    public static void main(String[] args) {
+        List<String> levels = new ArrayList<>();
+        List<SkillProfile> profiles = Arrays.asList(SkillProfile.values());
+        int plays = DEFAULT_PLAYS;
+        long seed = 0;
+        int clearOverride = -1;
+        String csvPath = null;
+        try {
+            CommandLine line = new CommandLine(args, new String[]{"-plays", "-profiles", "-seed", "-clear", "-csv"});
+            plays = line.getInt("-plays", plays);
+            String profileNames = line.get("-profiles", null);
+            if (profileNames != null) {
+                profiles = parseProfiles(profileNames);
+            }
+            seed = line.getLong("-seed", seed);
+            clearOverride = line.getInt("-clear", clearOverride);
+            csvPath = line.get("-csv", csvPath);
+            levels.addAll(line.getArguments());
+        } catch (IllegalArgumentException e) {
+            plays = 0;
+        }
+        if (plays < 1) {
+            System.err.println("Usage: PopulationRunner [1|2|3|chart.csv]... [-plays n] [-profiles name,...]"
+                    + " [-seed n] [-clear score] [-csv path]");
+            System.exit(-1);
+        }
+        if (levels.isEmpty()) {
+            levels.addAll(Arrays.asList(DEFAULT_LEVELS));
+        }
+        for (String level : levels) {
+            try {
+                Simulation.createLevel(level, seed);
+            } catch (IOException | ChartFormatException e) {
+                System.err.println("error: " + e.getMessage());
+                System.exit(1);
+            }
+        }
+
+        Population[] populations = new Population[levels.size() * profiles.size()];
+        for (int i = 0; i < populations.length; i++) {
+            populations[i] = new Population(levels.get(i / profiles.size()), profiles.get(i % profiles.size()), plays);
+        }
+        long start = System.nanoTime();
+        playAll(populations, plays, seed);
+        double seconds = (System.nanoTime() - start) / NANOS_PER_SECOND;
+
+        int[] clearScores = new int[populations.length];
+        for (int i = 0; i < populations.length; i++) {
+            clearScores[i] = (clearOverride >= 0) ? clearOverride : populations[i].clearScore;
+            if (i % profiles.size() == 0) {
+                System.out.printf("%s: clear score %d, %d plays per profile%n", populations[i].level, clearScores[i], plays);
+                System.out.printf("  %-8s %8s %8s %7s %6s %6s %6s %6s %6s%n",
+                        "profile", "cleared", "mean", "sd", "min", "p10", "p50", "p90", "max");
+            }
+            printRow(populations[i], clearScores[i]);
+        }
+        System.out.printf(Locale.ROOT, "%d plays in %.1fs on %d threads%n", populations.length * plays, seconds,
+                ForkJoinPool.commonPool().getParallelism());
+
+        if (csvPath != null) {
+            try {
+                writeCsv(csvPath, populations, clearScores);
+            } catch (IOException e) {
+                System.err.println("error: " + e.getMessage());
+                System.exit(1);
+            }
+        }
+    }
+}
@@ -1,17 +1,25 @@
-import bagel.DrawOptions;
-import bagel.Image;
-import bagel.util.Vector2;
-
 import java.util.List;
 /**
  * A class representing a projectile fired by a Guardian to hit the closest enemy.
  */
-public class Projectile {
-    private final Image PROJECTILE_IMAGE = new Image("res/arrow.png");
-    private Vector2 position = new Vector2();
-    private Vector2 velocity = new Vector2();
-    DrawOptions rotation = new DrawOptions();
-    private boolean isActive = true;
+public class Projectile implements Entity {
+    public final static String IMAGE_FILE = "res/arrow.png";
+    private final static double SPEED = 6;
+    private final static double COLLISION_RADIUS = 64;
+    private double x;
+    private double y;
+    private double previousX;
+    private double previousY;
+    private double velocityX;
+    private double velocityY;
+    private double rotation;
+    private boolean isActive = false;
+
+    /**
+     * Constructs an inactive projectile, to be fired later with {@link #reset(Guardian, List)}.
+     */
+    public Projectile() {
+    }
 
     /**
      * Constructs a new projectile for a Guardian to target the closest enemy.
@@ -20,33 +28,51 @@ public class Projectile {
      * @param enemies  A list of enemies to target.
      */
     public Projectile(Guardian guardian, List<Enemy> enemies) {
-        position = guardian.getPosition();
+        reset(guardian, enemies);
+    }
+
+    /**
+     * Fires the projectile from a Guardian towards the closest enemy, so a pooled projectile can be reused.
+     *
+     * @param guardian The Guardian firing the projectile.
+     * @param enemies  A list of enemies to target.
+     */
+    public void reset(Guardian guardian, List<Enemy> enemies) {
+        x = guardian.getPosition().x;
+        y = guardian.getPosition().y;
+        previousX = x;
+        previousY = y;
+        isActive = true;
         Enemy target = closestEnemy(enemies);
 
-        velocity = target.getPosition().sub(this.position);
-        velocity = velocity.normalised().mul(6);
+        double distance = Accuracy.getDistance(target.getX(), target.getY(), x, y);
+        velocityX = (target.getX() - x) / distance * SPEED;
+        velocityY = (target.getY() - y) / distance * SPEED;
 
-        rotation.setRotation(Math.atan2(velocity.y, velocity.x));
+        rotation = Math.atan2(velocityY, velocityX);
     }
 
     /**
      * Updates the position and state of the projectile.
      *
      * @param enemies A list of enemies for collision detection.
+     * @return True if the projectile killed an enemy.
      */
-    public void update(List<Enemy> enemies) {
+    public boolean update(List<Enemy> enemies) {
         if (isActive) {
             // Check distance to enemy
-            if (position.x < 0 || position.x > ShadowDance.getWindowWidth()
-                    || position.y < 0 || position.y > ShadowDance.getWindowHeight()) {
+            if (x < 0 || x > Playfield.WIDTH || y < 0 || y > Playfield.HEIGHT) {
                 isActive = false; // Deactivate the projectile
             }
 
-            position = position.add(velocity);
-            PROJECTILE_IMAGE.draw(position.x, position.y, rotation);
+            previousX = x;
+            previousY = y;
+            x += velocityX;
+            y += velocityY;
 
-            this.checkCollision(enemies);
+            return this.checkCollision(enemies);
         }
+        return false;
     }
 
     /**
@@ -56,12 +82,13 @@ public class Projectile {
      * @return The closest active enemy, or null if there are no active enemies.
      */
     public Enemy closestEnemy(List<Enemy> enemies) {
-        double minDistance = ShadowDance.getWindowWidth();
+        double minDistance = Playfield.WIDTH;
         Enemy closestEnemy = null;
 
-        for (Enemy enemy : enemies) {
+        for (int i = 0; i < enemies.size(); i++) {
+            Enemy enemy = enemies.get(i);
             if (enemy.isActive()) {
-                double distance = Accuracy.getDistance(enemy.getPosition(), this.position);
+                double distance = Accuracy.getDistance(enemy.getX(), enemy.getY(), x, y);
 
                 if (distance < minDistance) {
                     closestEnemy = enemy;
@@ -76,17 +103,43 @@ public class Projectile {
      * Checks for collisions between the projectile and enemies and deactivates both upon collision.
      *
      * @param enemies A list of enemies to check for collisions with the projectile.
+     * @return True if the projectile hit an enemy.
      */
-    public void checkCollision(List<Enemy> enemies) {
-        for (Enemy enemy : enemies) {
+    public boolean checkCollision(List<Enemy> enemies) {
+        for (int i = 0; i < enemies.size(); i++) {
+            Enemy enemy = enemies.get(i);
             if (enemy.isActive()) {
-                if (Accuracy.detectCollision(enemy.getPosition(), this.position, 64)) {
+                if (Accuracy.detectCollision(enemy.getX(), enemy.getY(), x, y, COLLISION_RADIUS)) {
                     this.deactivate();
                     enemy.deactivate();
-                    return;
+                    return true;
                 }
             }
         }
+        return false;
+    }
+
+    /**
+     * Draws the projectile along its direction of travel if it is active.
+     *
+     * @param renderer The renderer to draw with.
+     * @param alpha    How far rendering is between the last two simulation steps.
+     */
+    public void draw(Renderer renderer, double alpha) {
+        if (isActive) {
+            renderer.drawImage(IMAGE_FILE,
+                    Playfield.interpolate(previousX, x, alpha), Playfield.interpolate(previousY, y, alpha), rotation);
+        }
+    }
+
+    /**
+     * Checks if the projectile is still in flight.
+     *
+     * @return True if the projectile is active.
+     */
+    @Override
+    public boolean isActive() {
+        return isActive;
     }
 
     /**
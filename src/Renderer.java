@@ -0,0 +1,30 @@
+/**
+ * Drawing surface used by the game objects, so the simulation does not depend on a GL window
+ */
+public interface Renderer {
+    /**
+     * Draw an image centred at a position
+     *
+     * @param path The file path to the image
+     * @param x    The horizontal position
+     * @param y    The vertical position
+     */
+    void drawImage(String path, double x, double y);
+
+    /**
+     * Draw a rotated image centred at a position
+     *
+     * @param path     The file path to the image
+     * @param x        The horizontal position
+     * @param y        The vertical position
+     * @param rotation The rotation in radians
+     */
+    void drawImage(String path, double x, double y, double rotation);
+
+    /**
+     * Draw the accuracy message in the centre of the screen
+     *
+     * @param text The accuracy message
+     */
+    void drawAccuracy(String text);
+}
@@ -0,0 +1,259 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A recorded session: the level, its random seed, every key event the simulation saw and the
+ * result it reached, so the session can be played again exactly.
+ * <p>
+ * The file holds a header, then the steps that had key events. Each step is written as the number
+ * of frames since the previous one, the number of events, and one varint per event packing the key,
+ * whether it was a release and its offset within the step. A frame delta of 0 ends the events, and
+ * the final frame, score and trace hash follow.
+ */
+public class Replay {
+    private static final int MAGIC = 0x53445250; // "SDRP"
+    private static final int VERSION = 1;
+    private static final int KEY_BITS = 8;
+    private static final int KEY_MASK = (1 << KEY_BITS) - 1;
+    private static final int INITIAL_EVENTS = 64;
+
+    private final String levelName;
+    private final long seed;
+    private int[] eventFrames = new int[INITIAL_EVENTS];
+    private int[] eventCodes = new int[INITIAL_EVENTS];
+    private int eventCount = 0;
+    private int finalFrame;
+    private int finalScore;
+    private long traceHash;
+
+    /**
+     * Constructor for an empty replay
+     *
+     * @param levelName The name the level is created with by {@link Simulation#createLevel(String, long)}
+     * @param seed      The level's random seed
+     */
+    public Replay(String levelName, long seed) {
+        this.levelName = levelName;
+        this.seed = seed;
+    }
+
+    /**
+     * Add a key event. Events must be added in frame order.
+     *
+     * @param frame   The frame of the step that saw the event
+     * @param key     The ordinal of the key
+     * @param release True for a release, false for a press
+     * @param offset  How long before the step the event happened, in 1/{@link InputSource#SUB_STEPS} of a step
+     */
+    public void addEvent(int frame, int key, boolean release, int offset) {
+        if (eventCount == eventFrames.length) {
+            eventFrames = Arrays.copyOf(eventFrames, eventCount * 2);
+            eventCodes = Arrays.copyOf(eventCodes, eventCount * 2);
+        }
+        eventFrames[eventCount] = frame;
+        eventCodes[eventCount] = (((offset << KEY_BITS) | key) << 1) | (release ? 1 : 0);
+        eventCount++;
+    }
+
+    /**
+     * Set the result the session reached
+     *
+     * @param frame The frame the level finished on
+     * @param score The final score
+     * @param trace The trace hash of the session
+     */
+    public void setResult(int frame, int score, long trace) {
+        finalFrame = frame;
+        finalScore = score;
+        traceHash = trace;
+    }
+
+    /**
+     * Write the replay to a file
+     *
+     * @param path The file path to write to
+     * @throws IOException If the file cannot be written
+     */
+    public void write(String path) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeUTF(levelName);
+            out.writeLong(seed);
+
+            int i = 0;
+            int previousFrame = 0;
+            while (i < eventCount) {
+                int frame = eventFrames[i];
+                int end = i;
+                while (end < eventCount && eventFrames[end] == frame) {
+                    end++;
+                }
+                writeVarint(out, frame - previousFrame);
+                writeVarint(out, end - i);
+                for (; i < end; i++) {
+                    writeVarint(out, eventCodes[i]);
+                }
+                previousFrame = frame;
+            }
+            writeVarint(out, 0);
+
+            writeVarint(out, finalFrame);
+            writeVarint(out, (finalScore << 1) ^ (finalScore >> 31));
+            out.writeLong(traceHash);
+        }
+    }
+
+    /**
+     * Read a replay from a file
+     *
+     * @param path The file path to the replay
+     * @return The replay
+     * @throws IOException If the file cannot be read or is not a replay
+     */
+    public static Replay read(String path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(path)))) {
+            if (in.readInt() != MAGIC || in.readByte() != VERSION) {
+                throw new IOException(path + ": not a replay file");
+            }
+            Replay replay = new Replay(in.readUTF(), in.readLong());
+
+            int frame = 0;
+            int delta;
+            while ((delta = readVarint(in)) != 0) {
+                frame += delta;
+                int count = readVarint(in);
+                for (int i = 0; i < count; i++) {
+                    int code = readVarint(in);
+                    replay.addEvent(frame, (code >>> 1) & KEY_MASK, (code & 1) != 0, code >>> (KEY_BITS + 1));
+                }
+            }
+
+            int finalFrame = readVarint(in);
+            int zigzag = readVarint(in);
+            replay.setResult(finalFrame, (zigzag >>> 1) ^ -(zigzag & 1), in.readLong());
+            return replay;
+        }
+    }
+
+    private static void writeVarint(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarint(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new EOFException("varint too long");
+    }
+
+    /**
+     * Get the name of the replayed level
+     *
+     * @return The level name
+     */
+    public String getLevelName() {
+        return levelName;
+    }
+
+    /**
+     * Get the level's random seed
+     *
+     * @return The seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Get the number of recorded key events
+     *
+     * @return The event count
+     */
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    /**
+     * Get the frame of the step that saw an event
+     *
+     * @param event The index of the event
+     * @return The frame
+     */
+    public int getEventFrame(int event) {
+        return eventFrames[event];
+    }
+
+    /**
+     * Get the key of an event
+     *
+     * @param event The index of the event
+     * @return The ordinal of the key
+     */
+    public int getEventKey(int event) {
+        return (eventCodes[event] >>> 1) & KEY_MASK;
+    }
+
+    /**
+     * Check if an event is a release
+     *
+     * @param event The index of the event
+     * @return True for a release, false for a press
+     */
+    public boolean isEventRelease(int event) {
+        return (eventCodes[event] & 1) != 0;
+    }
+
+    /**
+     * Get how long before its step an event happened
+     *
+     * @param event The index of the event
+     * @return The offset in 1/{@link InputSource#SUB_STEPS} of a step
+     */
+    public int getEventOffset(int event) {
+        return eventCodes[event] >>> (KEY_BITS + 1);
+    }
+
+    /**
+     * Get the frame the recorded session finished on
+     *
+     * @return The final frame
+     */
+    public int getFinalFrame() {
+        return finalFrame;
+    }
+
+    /**
+     * Get the recorded final score
+     *
+     * @return The final score
+     */
+    public int getFinalScore() {
+        return finalScore;
+    }
+
+    /**
+     * Get the recorded trace hash
+     *
+     * @return The trace hash
+     */
+    public long getTraceHash() {
+        return traceHash;
+    }
+}
@@ -0,0 +1,131 @@
+import bagel.Keys;
+
+import java.io.IOException;
+
+/**
+ * Plays recorded sessions headlessly at full speed and checks that each reaches the recorded
+ * frame, score and trace hash, so gameplay changes can be checked against real sessions in seconds.
+ * Usage: ReplayPlayer &lt;replay&gt;...
+ */
+public class ReplayPlayer {
+    private static final Keys[] KEYS = Keys.values();
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    /**
+     * Input that reproduces exactly the events recorded for each step
+     */
+    private static class ReplayInput implements InputSource {
+        private final boolean[] pressed = new boolean[KEYS.length];
+        private final boolean[] released = new boolean[KEYS.length];
+        private final int[] pressOffsets = new int[KEYS.length];
+        private final int[] releaseOffsets = new int[KEYS.length];
+        private final boolean[] down = new boolean[KEYS.length];
+
+        private void set(int key, boolean release, int offset) {
+            if (release) {
+                released[key] = true;
+                releaseOffsets[key] = offset;
+                down[key] = false;
+            } else {
+                pressed[key] = true;
+                pressOffsets[key] = offset;
+                down[key] = true;
+            }
+        }
+
+        private void clear() {
+            for (int i = 0; i < KEYS.length; i++) {
+                pressed[i] = false;
+                released[i] = false;
+            }
+        }
+
+        @Override
+        public boolean wasPressed(Keys key) {
+            return pressed[key.ordinal()];
+        }
+
+        @Override
+        public boolean wasReleased(Keys key) {
+            return released[key.ordinal()];
+        }
+
+        @Override
+        public boolean isDown(Keys key) {
+            return down[key.ordinal()];
+        }
+
+        @Override
+        public int getPressOffset(Keys key) {
+            return pressOffsets[key.ordinal()];
+        }
+
+        @Override
+        public int getReleaseOffset(Keys key) {
+            return releaseOffsets[key.ordinal()];
+        }
+    }
+
+    /**
+     * Play a replay from start to finish, stopping at the recorded final frame if the level
+     * has not finished by then
+     *
+     * @param replay The replay to play
+     * @return The finished simulation
+     * @throws IOException          If the level's chart cannot be read
+     * @throws ChartFormatException If the level's chart is not valid
+     */
+    public static Simulation play(Replay replay) throws IOException, ChartFormatException {
+        Simulation simulation = new Simulation(Simulation.createLevel(replay.getLevelName(), replay.getSeed()));
+        ReplayInput input = new ReplayInput();
+        int event = 0;
+        while (!simulation.isFinished() && simulation.getCurrFrame() < replay.getFinalFrame()) {
+            int frame = simulation.getCurrFrame() + 1;
+            for (; event < replay.getEventCount() && replay.getEventFrame(event) == frame; event++) {
+                input.set(replay.getEventKey(event), replay.isEventRelease(event), replay.getEventOffset(event));
+            }
+            simulation.step(input);
+            input.clear();
+        }
+        return simulation;
+    }
+
+    /**
+     * The entry point for replay playback.
+     */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Usage: ReplayPlayer <replay>...");
+            System.exit(-1);
+        }
+
+        int failures = 0;
+        for (String path : args) {
+            try {
+                Replay replay = Replay.read(path);
+                long start = System.nanoTime();
+                Simulation simulation = play(replay);
+                double millis = (System.nanoTime() - start) / NANOS_PER_MILLI;
+
+                boolean matches = simulation.isFinished()
+                        && simulation.getCurrFrame() == replay.getFinalFrame()
+                        && simulation.getLevel().getScore() == replay.getFinalScore()
+                        && simulation.getTraceHash() == replay.getTraceHash();
+                System.out.printf("%s: level %s, %d frames in %.1f ms, score %d, %s%n",
+                        path, replay.getLevelName(), simulation.getCurrFrame(), millis,
+                        simulation.getLevel().getScore(), matches ? "matches" : "MISMATCH (recorded score "
+                                + replay.getFinalScore() + " at frame " + replay.getFinalFrame() + ")");
+                if (!matches) {
+                    failures++;
+                }
+            } catch (IOException | ChartFormatException e) {
+                System.err.println("error: " + e.getMessage());
+                failures++;
+            }
+        }
+
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+import bagel.Keys;
+
+/**
+ * Records the key events each simulation step sees into a replay
+ */
+public class ReplayRecorder {
+    private static final Keys[] KEYS = Keys.values();
+
+    private final Replay replay;
+
+    /**
+     * Constructor for recording a session of a level
+     *
+     * @param levelName The name the level was created with
+     * @param level     The level being recorded
+     */
+    public ReplayRecorder(String levelName, Levels level) {
+        replay = new Replay(levelName, level.getSeed());
+    }
+
+    /**
+     * Record the presses and releases of one step
+     *
+     * @param frame The frame of the step
+     * @param input The input the step reads
+     */
+    public void record(int frame, InputSource input) {
+        for (int i = 0; i < KEYS.length; i++) {
+            Keys key = KEYS[i];
+            if (input.wasReleased(key)) {
+                replay.addEvent(frame, i, true, input.getReleaseOffset(key));
+            }
+            if (input.wasPressed(key)) {
+                replay.addEvent(frame, i, false, input.getPressOffset(key));
+            }
+        }
+    }
+
+    /**
+     * Finish the recording with the session's result
+     *
+     * @param simulation The finished simulation
+     * @return The replay
+     */
+    public Replay finish(Simulation simulation) {
+        replay.setResult(simulation.getCurrFrame(), simulation.getLevel().getScore(), simulation.getTraceHash());
+        return replay;
+    }
+}
@@ -1,5 +1,10 @@
 import bagel.*;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
 /**
  * Base on sample solution for SWEN20003 Project 1, Semester 2, 2023 from Stella Li
  * <p>
@@ -8,10 +13,10 @@ import bagel.*;
  */
 public class ShadowDance extends AbstractGame  {
 
-    private static final int WINDOW_WIDTH = 1024;
-    private final static int WINDOW_HEIGHT = 768;
+    private static final int WINDOW_WIDTH = Playfield.WIDTH;
+    private final static int WINDOW_HEIGHT = Playfield.HEIGHT;
     private final static String GAME_TITLE = "SHADOW DANCE";
-    private final Image BACKGROUND_IMAGE = new Image("res/background.png");
+    private final Image BACKGROUND_IMAGE = ImageCache.acquire("res/background.png");
     public final static String FONT_FILE = "res/FSO8BITR.TTF";
     private final static int TITLE_X = 220;
     private final static int TITLE_Y = 250;
@@ -20,27 +25,56 @@ public class ShadowDance extends AbstractGame  {
     private final static int SCORE_LOCATION = 35;
     private final static int END_MESSAGE_HEIGHT = 300;
     private final static int RETRY_MESSAGE_HEIGHT = 500;
+    private final static int TEXTURES_PER_FRAME = 2;
+    private final static int LOADING_Y = 700;
+    private final static int PERCENT = 100;
+    private final static int MAX_CATCH_UP_STEPS = 10;
+    private final static int PROFILER_X = 10;
+    private final static int PROFILER_Y = 80;
+    private final static int PROFILER_LINE_HEIGHT = 18;
+    private final static String REPLAY_DIRECTORY = "replays";
 
     private final Font TITLE_FONT = new Font(FONT_FILE, 64);
     private final Font INSTRUCTION_FONT = new Font(FONT_FILE, 24);
     private final Font SCORE_FONT = new Font(FONT_FILE, 30);
+    private final Font PROFILER_FONT = new Font(FONT_FILE, 12);
     private static final String INSTRUCTIONS = "SELECT LEVELS WITH\n" +
             "NUMBER KEYS\n\n" +
             "1          2          3";
     private static final String CLEAR_MESSAGE = "CLEAR!";
     private static final String TRY_AGAIN_MESSAGE = "TRY AGAIN";
     private static final String RETRY_MESSAGE = "PRESS SPACE TO RETURN TO LEVEL SELECTION";
+    private static final String LOADING_MESSAGE = "LOADING ";
+    private static final String PERCENT_SIGN = "%";
+    private static final String SCORE_LABEL = "Score ";
+    private final TextCache titleText = new TextCache(TITLE_FONT);
+    private final TextCache instructionText = new TextCache(INSTRUCTION_FONT);
+    private final TextCache scoreText = new TextCache(SCORE_FONT);
 
-    private final Accuracy accuracy = new Accuracy();
-    private static int currFrame = 0;
+    private final KeyBindings bindings = KeyBindings.load(KeyBindings.DEFAULT_PATH);
+    private final BagelInput bagelInput = new BagelInput(bindings);
+    private final BagelRenderer renderer = new BagelRenderer();
+    private final LevelPreloader preloader = new LevelPreloader();
+    private final Set<String> levelTextures = new HashSet<>();
+    private final LatchedInput latchedInput = new LatchedInput();
+    private final KeyEventQueue keyEvents;
+    private final FixedTimestep timestep = new FixedTimestep(MAX_CATCH_UP_STEPS);
     private boolean started = false;
     private boolean finished = false;
     private boolean paused = false;
 
     private Levels level = null;
+    private Simulation simulation = null;
+    private AudioTimeline timeline = null;
+    private ReplayRecorder recorder = null;
+    private String levelName = null;
 
     public ShadowDance(){
         super(WINDOW_WIDTH, WINDOW_HEIGHT, GAME_TITLE);
+        keyEvents = GlfwKeyCapture.install(bindings);
+        preloader.preload("1", Level1::new);
+        preloader.preload("2", Level2::new);
+        preloader.preload("3", Level3::new);
     }
 
 
@@ -60,81 +94,186 @@ public class ShadowDance extends AbstractGame  {
      */
     @Override
     protected void update(Input input) {
+        FrameProfiler.beginFrame();
 
         if (input.wasPressed(Keys.ESCAPE)){
             Window.close();
         }
+        if (input.wasPressed(Keys.F3)) {
+            FrameProfiler.setEnabled(!FrameProfiler.isEnabled());
+            FrameProfiler.startSong();
+        }
 
+        FrameProfiler.begin(FrameProfiler.BACKGROUND);
         BACKGROUND_IMAGE.draw(Window.getWidth()/2.0, Window.getHeight()/2.0);
+        FrameProfiler.end(FrameProfiler.BACKGROUND);
 
         if (!started) {
             // starting screen
-            TITLE_FONT.drawString(GAME_TITLE, TITLE_X, TITLE_Y);
-            INSTRUCTION_FONT.drawString(INSTRUCTIONS,
-                    TITLE_X + INS_X_OFFSET, TITLE_Y + INS_Y_OFFSET);
+            titleText.draw(GAME_TITLE, TITLE_X, TITLE_Y);
+            instructionText.draw(INSTRUCTIONS, TITLE_X + INS_X_OFFSET, TITLE_Y + INS_Y_OFFSET);
+
+            // levels are built in the background, only texture uploads happen here
+            preloader.uploadTextures(TEXTURES_PER_FRAME);
+            if (!preloader.isDone()) {
+                double x = instructionText.draw(LOADING_MESSAGE, TITLE_X + INS_X_OFFSET, LOADING_Y);
+                x = instructionText.drawNumber((int) (preloader.getProgress() * PERCENT), x, LOADING_Y);
+                instructionText.draw(PERCENT_SIGN, x, LOADING_Y);
+            }
 
             if (input.wasPressed(Keys.NUM_1)) {
-                started = true;
-                level = new Level1();
+                startLevel("1", preloader.take("1"));
             } else if (input.wasPressed(Keys.NUM_2)) {
-                started = true;
-                level = new Level2();
+                startLevel("2", preloader.take("2"));
             } else if (input.wasPressed(Keys.NUM_3)) {
-                started = true;
-                level = new Level3();
+                startLevel("3", preloader.take("3"));
             }
         } else if (finished) {
             // end screen
             String endMessage = (level.getScore() >= level.getClearScore()) ? CLEAR_MESSAGE : TRY_AGAIN_MESSAGE;
 
-            TITLE_FONT.drawString(endMessage,
-                    (double) WINDOW_WIDTH /2 - TITLE_FONT.getWidth(endMessage)/2,
-                    END_MESSAGE_HEIGHT);
-
-            INSTRUCTION_FONT.drawString(RETRY_MESSAGE,
-                    (double) WINDOW_WIDTH /2 - INSTRUCTION_FONT.getWidth(RETRY_MESSAGE)/2,
-                    RETRY_MESSAGE_HEIGHT);
+            titleText.drawCentred(endMessage, (double) WINDOW_WIDTH / 2, END_MESSAGE_HEIGHT);
+            instructionText.drawCentred(RETRY_MESSAGE, (double) WINDOW_WIDTH / 2, RETRY_MESSAGE_HEIGHT);
 
             if (input.wasPressed(Keys.SPACE)){
-                accuracy.setAccuracy(null);
-                currFrame = 0;
+                level.closeTrack();
+                releaseTextures();
+                level = null;
+                simulation = null;
+                timeline = null;
                 started = false;
                 finished = false;
             }
 
         } else {
             // gameplay
-//            level.getTrack().start();
-
-            SCORE_FONT.drawString("Score " + level.getScore(), SCORE_LOCATION, SCORE_LOCATION);
+            FrameProfiler.begin(FrameProfiler.HUD);
+            drawScore(scoreText, level.getScore());
+            FrameProfiler.end(FrameProfiler.HUD);
 
             if (paused) {
                 if (input.wasPressed(Keys.TAB)) {
                     paused = false;
-                    level.getTrack().run();
+                    level.getTrack().play();
+                    timeline.reset();
+                    clearInput();
                 }
 
-                level.pause();
+                level.draw(renderer, timestep.getAlpha());
 
             } else {
-                currFrame++;
-                level.update(input, accuracy);
-                accuracy.update();
-                finished = level.checkFinished();
+                // fixed steps paced by the music, however fast the display refreshes
+                bagelInput.setInput(input);
+                timestep.accumulate(timeline.update());
+                if (keyEvents != null) {
+                    latchedInput.latch(keyEvents, timeline);
+                }
+                latchedInput.latch(bagelInput);
+                finished = simulation.step(timestep.takeSteps(), latchedInput);
+                if (finished) {
+                    saveReplay();
+                }
+                level.draw(renderer, timestep.getAlpha());
+                FrameProfiler.begin(FrameProfiler.HUD);
+                simulation.getAccuracy().draw(renderer);
+                FrameProfiler.end(FrameProfiler.HUD);
                 if (input.wasPressed(Keys.TAB)) {
                     paused = true;
                     level.getTrack().pause();
                 }
             }
         }
+
+        if (FrameProfiler.isEnabled()) {
+            drawProfiler();
+        }
+        FrameProfiler.endFrame();
+    }
+
+    /**
+     * Draws the frame time overlay, toggled with F3.
+     */
+    private void drawProfiler() {
+        String[] lines = FrameProfiler.getLines();
+        for (int i = 0; i < lines.length; i++) {
+            if (lines[i] != null) {
+                PROFILER_FONT.drawString(lines[i], PROFILER_X, PROFILER_Y + i * PROFILER_LINE_HEIGHT);
+            }
+        }
+    }
+
+    /**
+     * Draws the score without building a new string every frame. Also drawn by the allocation gate.
+     *
+     * @param scoreText The text cache of the score font
+     * @param score     The score to draw
+     */
+    static void drawScore(TextCache scoreText, int score) {
+        double x = scoreText.draw(SCORE_LABEL, SCORE_LOCATION, SCORE_LOCATION);
+        scoreText.drawNumber(score, x, SCORE_LOCATION);
     }
+
     /**
-     * Gets the current frame number of the game.
+     * Starts simulating a newly selected level and its music, recording the session.
      *
-     * @return The current frame number.
+     * @param name     The name of the selected level
+     * @param newLevel The selected level, or null if it could not be built, which leaves the title screen up
+     */
+    private void startLevel(String name, Levels newLevel) {
+        if (newLevel == null) {
+            return;
+        }
+        started = true;
+        levelName = name;
+        level = newLevel;
+        level.collectImagePaths(levelTextures);
+        for (String path : levelTextures) {
+            ImageCache.acquire(path);
+        }
+        simulation = new Simulation(level);
+        recorder = new ReplayRecorder(name, level);
+        simulation.setRecorder(recorder);
+        clearInput();
+        timestep.reset();
+        level.getTrack().play();
+        timeline = new AudioTimeline(level.getTrack());
+        FrameProfiler.startSong();
+    }
+
+    /**
+     * Release the textures the discarded level held, which stay resident for the next level that uses them
+     */
+    private void releaseTextures() {
+        for (String path : levelTextures) {
+            ImageCache.release(path);
+        }
+        levelTextures.clear();
+    }
+
+    /**
+     * Writes the replay of the finished session, which can be checked with ReplayPlayer.
+     */
+    private void saveReplay() {
+        File directory = new File(REPLAY_DIRECTORY);
+        String file = String.format("level%s-%d.replay", levelName, System.currentTimeMillis());
+        try {
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                throw new IOException("cannot create " + directory);
+            }
+            recorder.finish(simulation).write(new File(directory, file).getPath());
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Drops key events that arrived while the level was not being played.
      */
-    public static int getCurrFrame() {
-        return currFrame;
+    private void clearInput() {
+        if (keyEvents != null) {
+            keyEvents.clear();
+        }
+        latchedInput.clear();
     }
 
     /**
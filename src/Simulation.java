@@ -0,0 +1,297 @@
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Rendering-free driver that steps a level one frame at a time.
+ * The bagel game draws on top of it, and headless tools run it directly at full speed.
+ */
+public class Simulation {
+    private static final int FRAMES_PER_SECOND = 60;
+    private static final int DEFAULT_RUNS = 1000;
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private final Levels level;
+    private final Accuracy accuracy = new Accuracy();
+    private final FrameCounter clock = new FrameCounter();
+    private final GameEventStream events = new GameEventStream();
+    private boolean finished = false;
+    private long trace = 0;
+    private ReplayRecorder recorder = null;
+
+    /**
+     * Constructor for a simulation of a level
+     *
+     * @param level The level to simulate
+     */
+    public Simulation(Levels level) {
+        this.level = level;
+        level.setClock(clock);
+        level.setEvents(events);
+        accuracy.setEvents(events);
+    }
+
+    /**
+     * Advance the level by one frame
+     *
+     * @param input The input for this frame
+     * @return True if the level is finished
+     */
+    public boolean step(InputSource input) {
+        if (!finished) {
+            clock.advance();
+            events.setFrame(clock.getCurrFrame());
+            if (recorder != null) {
+                recorder.record(clock.getCurrFrame(), input);
+            }
+            level.update(input, accuracy);
+            accuracy.update();
+            finished = level.checkFinished();
+            trace = (trace * 31 + level.getScore()) * 31 + accuracy.getJudgmentTrace();
+        }
+        return finished;
+    }
+
+    /**
+     * Run a number of steps with latched input, each seeing the presses that happened before it
+     *
+     * @param steps The number of steps to run
+     * @param input The latched input of the rendered frame
+     * @return True if the level is finished
+     */
+    public boolean step(int steps, LatchedInput input) {
+        for (int i = 0; i < steps && !finished; i++) {
+            input.beginStep(clock.getCurrFrame() + 1);
+            step(input);
+            input.consume();
+        }
+        return finished;
+    }
+
+    /**
+     * Step the level until it is finished
+     *
+     * @param input The input to play with
+     * @return The number of frames simulated
+     */
+    public int run(InputSource input) {
+        while (!step(input)) {
+            // keep stepping until every lane is finished
+        }
+        return clock.getCurrFrame();
+    }
+
+    /**
+     * Record the input of every step from now on
+     *
+     * @param recorder The recorder to write the input to
+     */
+    public void setRecorder(ReplayRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * Get a hash of the score and judgments after every step, which is identical whenever
+     * the same level is played with the same seed and input
+     *
+     * @return The trace hash
+     */
+    public long getTraceHash() {
+        return trace;
+    }
+
+    /**
+     * Get the stream of judgments, effects and enemy events, which other threads can subscribe to
+     *
+     * @return The event stream
+     */
+    public GameEventStream getEvents() {
+        return events;
+    }
+
+    /**
+     * Get the simulated level
+     *
+     * @return The level
+     */
+    public Levels getLevel() {
+        return level;
+    }
+
+    /**
+     * Get the accuracy manager of the simulation
+     *
+     * @return The accuracy manager
+     */
+    public Accuracy getAccuracy() {
+        return accuracy;
+    }
+
+    /**
+     * Get the current frame of the simulation
+     *
+     * @return The current frame number
+     */
+    public int getCurrFrame() {
+        return clock.getCurrFrame();
+    }
+
+    /**
+     * Check if the level is finished
+     *
+     * @return True if the level is finished
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Create a level from a level number or a chart file path
+     *
+     * @param name "1", "2", "3" or the path to a chart CSV file
+     * @return The new level
+     * @throws IOException          If the chart cannot be read
+     * @throws ChartFormatException If the chart is not valid
+     */
+    public static Levels createLevel(String name) throws IOException, ChartFormatException {
+        return createLevel(name, new Random().nextLong());
+    }
+
+    /**
+     * Create a level from a level number or a chart file path, with a given random seed
+     *
+     * @param name "1", "2", "3" or the path to a chart CSV file
+     * @param seed The seed for the level's random choices
+     * @return The new level
+     * @throws IOException          If the chart cannot be read
+     * @throws ChartFormatException If the chart is not valid
+     */
+    public static Levels createLevel(String name, long seed) throws IOException, ChartFormatException {
+        switch (name) {
+            case "1":
+                return new Level1();
+            case "2":
+                return new Level2();
+            case "3":
+                return new Level3(seed);
+            default:
+                return new ChartLevel(name);
+        }
+    }
+
+    /**
+     * Get the chart file a level is read from
+     *
+     * @param name "1", "2", "3" or the path to a chart CSV file
+     * @return The built-in level's chart, or the name itself if it is a chart file path
+     */
+    public static String getChartFile(String name) {
+        switch (name) {
+            case "1":
+                return Level1.CSV_FILE;
+            case "2":
+                return Level2.CSV_FILE;
+            case "3":
+                return Level3.CSV_FILE;
+            default:
+                return name;
+        }
+    }
+
+    /**
+     * Plays a chart repeatedly without a window and reports the simulation speed. Levels 1 and 2 can
+     * be streamed or packed from their charts, but not both, and level 3 cannot be either, since its enemies
+     * are part of the level.
+     * With -judgments, a {@link JudgmentCounter} subscribed to each run's events counts them on another thread.
+     * Usage: Simulation &lt;1|2|3|chart.csv&gt; [runs] [-stream look-ahead-frames | -packed] [-judgments]
+     */
+    public static void main(String[] args) {
+        String chart = null;
+        int runs = DEFAULT_RUNS;
+        int lookAheadFrames = -1;
+        boolean packed = false;
+        JudgmentCounter counter = null;
+        try {
+            CommandLine line = new CommandLine(args, new String[]{"-stream"}, "-packed", "-judgments");
+            lookAheadFrames = line.getInt("-stream", lookAheadFrames);
+            packed = line.has("-packed");
+            if (line.has("-judgments")) {
+                counter = new JudgmentCounter();
+            }
+            List<String> arguments = line.getArguments();
+            if (arguments.size() == 2) {
+                runs = Integer.parseInt(arguments.get(1));
+            }
+            if (arguments.size() == 1 || arguments.size() == 2) {
+                chart = arguments.get(0);
+            }
+        } catch (IllegalArgumentException e) {
+            chart = null;
+        }
+        boolean streamed = lookAheadFrames >= 0;
+        if (chart == null || runs < 1 || (packed && streamed) || (chart.equals("3") && (packed || streamed))) {
+            System.err.println("Usage: Simulation <1|2|3|chart.csv> [runs] [-stream look-ahead-frames | -packed]"
+                    + " [-judgments], where -stream and -packed cannot be combined"
+                    + " and level 3 cannot be streamed or packed");
+            System.exit(-1);
+        }
+
+        long frames = 0;
+        int score = 0;
+        int peakNotes = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            Levels level = null;
+            try {
+                if (packed) {
+                    level = new ChartLevel(getChartFile(chart), true);
+                } else if (streamed) {
+                    level = new ChartLevel(getChartFile(chart), lookAheadFrames);
+                } else {
+                    level = createLevel(chart);
+                }
+            } catch (IOException | ChartFormatException e) {
+                System.err.println("error: " + e.getMessage());
+                System.exit(1);
+            }
+            Simulation simulation = new Simulation(level);
+            if (counter != null) {
+                counter.start(simulation.getEvents());
+            }
+            KeyStateInput input = new KeyStateInput();
+            while (!simulation.step(input)) {
+                peakNotes = Math.max(peakNotes, level.getResidentNoteCount());
+            }
+            if (counter != null) {
+                counter.stop();
+            }
+            frames += simulation.getCurrFrame();
+            score = level.getScore();
+        }
+        double seconds = (System.nanoTime() - start) / NANOS_PER_SECOND;
+
+        System.out.printf("%s: %d runs, %d frames in %.3fs (%.0fx real time), score %d, at most %d notes held%n",
+                chart, runs, frames, seconds, frames / (double) FRAMES_PER_SECOND / seconds, score, peakNotes);
+        if (counter != null) {
+            printCounts(counter);
+        }
+    }
+
+    /**
+     * Print the events a judgment counter counted over every run
+     */
+    private static void printCounts(JudgmentCounter counter) {
+        System.out.print("judgments:");
+        for (Judgment judgment : Judgment.values()) {
+            if (counter.getJudgmentCount(judgment) > 0) {
+                System.out.printf(" %s %d", judgment.getText(), counter.getJudgmentCount(judgment));
+            }
+        }
+        System.out.print(", effects:");
+        for (SpecialEffect effect : SpecialEffect.values()) {
+            System.out.printf(" %s %d", effect.getMessage().getText(), counter.getEffectCount(effect));
+        }
+        System.out.printf(", %d notes stolen, %d enemies killed, %d events missed%n",
+                counter.getStolenCount(), counter.getKillCount(), counter.getMissedCount());
+    }
+}
@@ -0,0 +1,61 @@
+/**
+ * How well an {@link AutoPlayer} plays: the spread and lean of its timing errors, how often it lets
+ * a note go by without playing it, and how long it takes to shoot at a level 3 enemy
+ */
+public enum SkillProfile {
+    PERFECT(0, 0, 0, 0),
+    EXPERT(40, 0, 0.005, 250),
+    SKILLED(90, 10, 0.02, 500),
+    CASUAL(160, 30, 0.06, 1000),
+    NOVICE(260, 60, 0.15, 2000);
+
+    private static final double MILLIS_PER_FRAME = 1000.0 / 60;
+
+    private final double timingSpread;
+    private final double timingBias;
+    private final double dropRate;
+    private final int reactionFrames;
+
+    SkillProfile(double spreadMillis, double biasMillis, double dropRate, double reactionMillis) {
+        this.timingSpread = spreadMillis / MILLIS_PER_FRAME;
+        this.timingBias = biasMillis / MILLIS_PER_FRAME;
+        this.dropRate = dropRate;
+        this.reactionFrames = (int) Math.round(reactionMillis / MILLIS_PER_FRAME);
+    }
+
+    /**
+     * Get the standard deviation of the player's timing errors
+     *
+     * @return The spread in frames
+     */
+    public double getTimingSpread() {
+        return timingSpread;
+    }
+
+    /**
+     * Get the average timing error of the player, where a positive error is late
+     *
+     * @return The bias in frames
+     */
+    public double getTimingBias() {
+        return timingBias;
+    }
+
+    /**
+     * Get the chance the player lets a note go by without playing it
+     *
+     * @return The chance, from 0 to 1
+     */
+    public double getDropRate() {
+        return dropRate;
+    }
+
+    /**
+     * Get how long an enemy is on screen before the player shoots at it
+     *
+     * @return The reaction time in frames
+     */
+    public int getReactionFrames() {
+        return reactionFrames;
+    }
+}
@@ -0,0 +1,35 @@
+/**
+ * The effects special notes start when they are hit
+ */
+public enum SpecialEffect {
+    SPEED_UP(Judgment.SPEED_UP, true),
+    SLOW_DOWN(Judgment.SLOW_DOWN, true),
+    BOMB(Judgment.LANE_CLEAR, false),
+    DOUBLE_SCORE(Judgment.DOUBLE_SCORE, false);
+
+    private final Judgment message;
+    private final boolean scored;
+
+    SpecialEffect(Judgment message, boolean scored) {
+        this.message = message;
+        this.scored = scored;
+    }
+
+    /**
+     * Get the message shown when the effect starts
+     *
+     * @return The message
+     */
+    public Judgment getMessage() {
+        return message;
+    }
+
+    /**
+     * Check if hitting the note scores points as well as starting the effect
+     *
+     * @return True if the note is scored
+     */
+    public boolean isScored() {
+        return scored;
+    }
+}
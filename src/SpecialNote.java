@@ -1,21 +1,21 @@
-import bagel.*;
+import bagel.Keys;
 /**
  * A class representing special notes in a rhythm game that may have unique effects when hit.
  * Extends the functionality of a NormalNote.
  */
 public class SpecialNote extends NormalNote {
-    private String effect = null;
+    private final SpecialEffect effect;
     private boolean isMissed = false;
 
     /**
-     * Constructs a new SpecialNote with a specified image directory and appearance frame.
+     * Constructs a new SpecialNote of a specified kind and appearance frame.
      *
-     * @param dir            The directory of the image resource.
+     * @param kind           The kind of special note, which decides its effect and image.
      * @param appearanceFrame The frame at which the special note should appear.
      */
-    public SpecialNote(String dir, int appearanceFrame) {
-        super(dir, appearanceFrame);
-        this.effect = dir;
+    public SpecialNote(NoteKind kind, int appearanceFrame) {
+        super(kind, kind.getTypeName(), appearanceFrame);
+        this.effect = kind.getEffect();
     }
 
     /**
@@ -28,10 +28,12 @@ public class SpecialNote extends NormalNote {
      * @param relevantKey  The relevant key that was pressed.
      * @return The evaluated score for the special note, taking into account its effects.
      */
-    public int checkScore(Input input, Accuracy accuracy, int targetHeight, Keys relevantKey) {
+    public int checkScore(InputSource input, Accuracy accuracy, int targetHeight, Keys relevantKey) {
         if (isActive()) {
-            // Evaluate accuracy of the key press
-            int score = accuracy.evaluateScore(y, targetHeight, input.wasPressed(relevantKey), true);
+            // Evaluate accuracy of the key press where the note was when the key went down
+            boolean pressed = input.wasPressed(relevantKey);
+            double height = pressed ? heightAt(y, input.getPressOffset(relevantKey)) : y;
+            int score = accuracy.evaluateScore(height, targetHeight, pressed, true);
 
             if (score != Accuracy.NOT_SCORED) {
                 deactivate();
@@ -41,7 +43,7 @@ public class SpecialNote extends NormalNote {
                     return 0; // Missed special notes are not scored
                 }
 
-                if (effect.equals("2x") || effect.equals("Bomb")) {
+                if (!effect.isScored()) {
                     return 0; // Double score and bomb notes have no scores
                 }
                 return score;
@@ -52,32 +54,17 @@ public class SpecialNote extends NormalNote {
 
     /**
      * Checks and returns the effect associated with the special note.
-     * If the note is missed, it returns an empty string, indicating no effect.
+     * If the note is missed, it returns null, indicating no effect.
      *
      * @param accuracy The accuracy evaluator for setting the effect description.
-     * @return The effect associated with the special note or an empty string if missed.
+     * @return The effect associated with the special note or null if missed.
      */
-    public String checkEffect(Accuracy accuracy) {
+    @Override
+    public SpecialEffect checkEffect(Accuracy accuracy) {
         if (isMissed) {
-            return "";
+            return null;
         }
-        if (this.effect != null) {
-            switch (effect) {
-                case "2x":
-                    accuracy.setAccuracy("Double Score");
-                    break;
-                case "SpeedUp":
-                    accuracy.setAccuracy("Speed Up");
-                    break;
-                case "SlowDown":
-                    accuracy.setAccuracy("Slow Down");
-                    break;
-                case "Bomb":
-                    accuracy.setAccuracy("Lane Clear");
-                    break;
-            }
-            return effect;
-        }
-        return null;
+        accuracy.showEffect(effect);
+        return effect;
     }
 }
@@ -0,0 +1,132 @@
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Plays a sound file through a {@link SourceDataLine}. A feeder thread decodes the file a chunk at a time
+ * into the line's small ring buffer, so only the file header is read before the level starts and the
+ * memory used does not grow with the length of the song.
+ */
+public class StreamingAudioBackend implements AudioBackend {
+    private static final int BUFFER_MILLIS = 200;
+    private static final int CHUNKS_PER_BUFFER = 4;
+    private static final int MILLIS_PER_SECOND = 1000;
+    private static final int BITS_PER_BYTE = 8;
+    private static final int SAMPLE_BITS = 16;
+    private static final long CLOSE_TIMEOUT_MILLIS = 1000;
+
+    private final AudioInputStream stream;
+    private final SourceDataLine line;
+    private final Thread feeder;
+    private volatile boolean closed = false;
+    private volatile boolean finished = false;
+
+    /**
+     * Constructor for streaming a sound file. The feeder starts filling the buffer straight away,
+     * so playback can begin as soon as {@link #play()} is called.
+     *
+     * @param file The file path to the sound file
+     * @throws UnsupportedAudioFileException If the file is not a supported format
+     * @throws IOException                   If the file cannot be read
+     * @throws LineUnavailableException      If there is no audio device to play on
+     */
+    public StreamingAudioBackend(String file)
+            throws UnsupportedAudioFileException, IOException, LineUnavailableException {
+        AudioInputStream source = AudioSystem.getAudioInputStream(new File(file));
+        stream = toPcm(source);
+        AudioFormat format = stream.getFormat();
+
+        int frameBytes = format.getFrameSize();
+        int bufferFrames = (int) (format.getFrameRate() * BUFFER_MILLIS / MILLIS_PER_SECOND);
+        try {
+            line = AudioSystem.getSourceDataLine(format);
+            line.open(format, bufferFrames * frameBytes);
+        } catch (LineUnavailableException | IllegalArgumentException e) {
+            stream.close();
+            throw (e instanceof LineUnavailableException)
+                    ? (LineUnavailableException) e
+                    : new LineUnavailableException(e.getMessage());
+        }
+
+        byte[] chunk = new byte[Math.max(frameBytes, line.getBufferSize() / CHUNKS_PER_BUFFER / frameBytes * frameBytes)];
+        feeder = new Thread(() -> feed(chunk), "audio-feeder");
+        feeder.setDaemon(true);
+        feeder.start();
+    }
+
+    /**
+     * Convert compressed or unusual encodings to signed PCM the line can play
+     */
+    private static AudioInputStream toPcm(AudioInputStream source) {
+        AudioFormat format = source.getFormat();
+        if (format.getEncoding() == AudioFormat.Encoding.PCM_SIGNED
+                || format.getEncoding() == AudioFormat.Encoding.PCM_UNSIGNED) {
+            return source;
+        }
+        AudioFormat pcm = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, format.getSampleRate(), SAMPLE_BITS,
+                format.getChannels(), format.getChannels() * SAMPLE_BITS / BITS_PER_BYTE,
+                format.getSampleRate(), false);
+        return AudioSystem.getAudioInputStream(pcm, source);
+    }
+
+    /**
+     * Copy the file into the line until it ends or the backend is closed. Writes block while the
+     * buffer is full, which is always the case while the line is paused.
+     */
+    private void feed(byte[] chunk) {
+        try {
+            int read;
+            while (!closed && (read = stream.read(chunk, 0, chunk.length)) > 0) {
+                line.write(chunk, 0, read);
+            }
+            if (!closed) {
+                line.drain();
+                finished = true;
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void play() {
+        line.start();
+    }
+
+    @Override
+    public void pause() {
+        line.stop();
+    }
+
+    @Override
+    public long getPositionMicros() {
+        return line.getMicrosecondPosition();
+    }
+
+    @Override
+    public boolean isFinished() {
+        return finished;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        // closing the line releases a feeder blocked in write
+        line.stop();
+        line.flush();
+        line.close();
+        try {
+            feeder.join(CLOSE_TIMEOUT_MILLIS);
+            stream.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+import bagel.Font;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Text drawing for one font that measures each string once and draws numbers digit by digit,
+ * so HUD text costs no layout work or string building after the first frame it appears.
+ */
+public class TextCache {
+    private static final String MINUS_SIGN = "-";
+    private static final String[] DIGITS = {"0", "1", "2", "3", "4", "5", "6", "7", "8", "9"};
+
+    private final Typeface font;
+    private final Map<String, Double> widths = new HashMap<>();
+    private final double[] digitWidths = new double[DIGITS.length];
+    private final double minusWidth;
+
+    /**
+     * What a text cache measures and draws strings with, so text can be drawn without a GL window
+     */
+    public interface Typeface {
+        /**
+         * Get the width of a string
+         *
+         * @param text The string to measure
+         * @return The width of the string in pixels
+         */
+        double getWidth(String text);
+
+        /**
+         * Draw a string with its left edge at a position
+         *
+         * @param text The string to draw
+         * @param x    The horizontal position of the left edge
+         * @param y    The vertical position of the baseline
+         */
+        void drawString(String text, double x, double y);
+    }
+
+    /**
+     * Create a text cache for a font
+     *
+     * @param font The font to draw with
+     */
+    public TextCache(Font font) {
+        this(new Typeface() {
+            @Override
+            public double getWidth(String text) {
+                return font.getWidth(text);
+            }
+
+            @Override
+            public void drawString(String text, double x, double y) {
+                font.drawString(text, x, y);
+            }
+        });
+    }
+
+    /**
+     * Create a text cache for a typeface
+     *
+     * @param font The typeface to draw with
+     */
+    public TextCache(Typeface font) {
+        this.font = font;
+        minusWidth = font.getWidth(MINUS_SIGN);
+        for (int i = 0; i < DIGITS.length; i++) {
+            digitWidths[i] = font.getWidth(DIGITS[i]);
+        }
+    }
+
+    /**
+     * Get the width of a string, measuring it only the first time it is seen
+     *
+     * @param text The string to measure
+     * @return The width of the string in pixels
+     */
+    public double getWidth(String text) {
+        Double width = widths.get(text);
+        if (width == null) {
+            width = font.getWidth(text);
+            widths.put(text, width);
+        }
+        return width;
+    }
+
+    /**
+     * Draw a string with its left edge at a position
+     *
+     * @param text The string to draw
+     * @param x    The horizontal position of the left edge
+     * @param y    The vertical position of the baseline
+     * @return The horizontal position just after the string
+     */
+    public double draw(String text, double x, double y) {
+        font.drawString(text, x, y);
+        return x + getWidth(text);
+    }
+
+    /**
+     * Draw a string centred horizontally on a position
+     *
+     * @param text    The string to draw
+     * @param centreX The horizontal centre of the string
+     * @param y       The vertical position of the baseline
+     */
+    public void drawCentred(String text, double centreX, double y) {
+        font.drawString(text, centreX - getWidth(text) / 2, y);
+    }
+
+    /**
+     * Draw a number digit by digit from cached strings, without building a string for it
+     *
+     * @param number The number to draw
+     * @param x      The horizontal position of the left edge
+     * @param y      The vertical position of the baseline
+     * @return The horizontal position just after the number
+     */
+    public double drawNumber(int number, double x, double y) {
+        long value = number;
+        if (value < 0) {
+            font.drawString(MINUS_SIGN, x, y);
+            x += minusWidth;
+            value = -value;
+        }
+
+        long divisor = 1;
+        while (divisor <= value / 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            int digit = (int) (value / divisor % 10);
+            font.drawString(DIGITS[digit], x, y);
+            x += digitWidths[digit];
+        }
+        return x;
+    }
+}
@@ -1,36 +1,77 @@
-import javax.sound.sampled.*;
-
 /**
- * Class for managing the music being played in the background
+ * Class for managing the music being played in the background.
+ * The music is streamed from disk, and a level without music or without an audio device plays silently.
  */
-public class Track extends Thread {
-    private AudioInputStream stream;
-    private Clip clip;
+public class Track {
+    private final AudioBackend backend;
 
+    /**
+     * Constructor for the music of a level
+     *
+     * @param file The file path to the sound file, or null for a silent track
+     */
     public Track(String file) {
-        try {
-            stream = AudioSystem.getAudioInputStream(new java.io.File(file));
-            clip = (Clip) AudioSystem.getLine(new DataLine.Info(Clip.class,stream.getFormat()));
-            clip.open(stream);
-        } catch(Exception ex) {
-            ex.printStackTrace();
-        }
+        this(openBackend(file));
     }
 
-    public void pause() {
-        try {
-            clip.stop();
-        } catch (Exception ex) {
-            ex.printStackTrace();
-        }
+    /**
+     * Constructor for a track played through a given backend
+     *
+     * @param backend The audio backend
+     */
+    public Track(AudioBackend backend) {
+        this.backend = backend;
     }
 
-    public void run(){
+    private static AudioBackend openBackend(String file) {
+        if (file == null) {
+            return new NullAudioBackend();
+        }
         try {
-            clip.start();
+            return new StreamingAudioBackend(file);
         } catch (Exception ex) {
+            // keep the level playable when the file or the audio device is missing
             ex.printStackTrace();
+            return new NullAudioBackend();
         }
+    }
+
+    /**
+     * Start or resume the music
+     */
+    public void play() {
+        backend.play();
+    }
+
+    /**
+     * Pause the music
+     */
+    public void pause() {
+        backend.pause();
+    }
+
+    /**
+     * Get how much of the music has been played
+     *
+     * @return The playback position in microseconds
+     */
+    public long getPositionMicros() {
+        return backend.getPositionMicros();
+    }
+
+    /**
+     * Check if the music has played to the end
+     *
+     * @return True if the music has finished
+     */
+    public boolean isFinished() {
+        return backend.isFinished();
+    }
 
+    /**
+     * Stop the music and release the audio device
+     */
+    public void close() {
+        backend.close();
     }
-}
\ No newline at end of file
+}